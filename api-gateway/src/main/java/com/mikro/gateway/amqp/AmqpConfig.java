@@ -0,0 +1,29 @@
+package com.mikro.gateway.amqp;
+
+import org.springframework.amqp.core.AnonymousQueue;
+import org.springframework.amqp.core.Binding;
+import org.springframework.amqp.core.BindingBuilder;
+import org.springframework.amqp.core.TopicExchange;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class AmqpConfig {
+    @Bean
+    public TopicExchange productExchange(@Value("${amqp.productExchange}") String exchange) {
+        return new TopicExchange(exchange, true, false);
+    }
+
+    // One auto-delete queue per gateway instance so every response cache sees every product change
+    @Bean
+    public AnonymousQueue productEventsQueue() {
+        return new AnonymousQueue();
+    }
+
+    @Bean
+    public Binding productEventsBinding(TopicExchange productExchange, AnonymousQueue productEventsQueue,
+                                        @Value("${amqp.productChangedRoutingKey}") String routingKey) {
+        return BindingBuilder.bind(productEventsQueue).to(productExchange).with(routingKey);
+    }
+}
@@ -0,0 +1,20 @@
+package com.mikro.gateway.amqp;
+
+import com.mikro.gateway.cache.ResponseCacheStore;
+import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.stereotype.Component;
+
+@Component
+public class ProductChangedListener {
+    private final ResponseCacheStore responseCache;
+
+    public ProductChangedListener(ResponseCacheStore responseCache) {
+        this.responseCache = responseCache;
+    }
+
+    @RabbitListener(queues = "#{productEventsQueue.name}")
+    public void onProductChanged(ProductEvents.ProductChanged event) {
+        // Stock moves on every order; listings are left to their TTL for those
+        responseCache.invalidateProduct(event.productId(), !ProductEvents.STOCK_CHANGED.equals(event.type()));
+    }
+}
@@ -0,0 +1,37 @@
+package com.mikro.gateway.amqp;
+
+import org.springframework.amqp.support.converter.ContentTypeDelegatingMessageConverter;
+import org.springframework.amqp.support.converter.DefaultJackson2JavaTypeMapper;
+import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
+import org.springframework.amqp.support.converter.MessageConverter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.Map;
+
+// Incoming messages are decoded by their content_type, so JSON and CBOR producers can coexist during a rollout;
+// outgoing messages use amqp.codec.outbound. __TypeId__ carries a short logical id instead of a class name.
+@Configuration
+public class RabbitCodecConfig {
+    private static final Map<String, Class<?>> TYPE_IDS = Map.of(
+        "product.changed", ProductEvents.ProductChanged.class
+    );
+
+    @Bean
+    public MessageConverter messageConverter(@Value("${amqp.codec.outbound:json}") String outbound) {
+        DefaultJackson2JavaTypeMapper typeMapper = new DefaultJackson2JavaTypeMapper();
+        typeMapper.setIdClassMapping(TYPE_IDS);
+
+        Jackson2JsonMessageConverter json = new Jackson2JsonMessageConverter();
+        json.setJavaTypeMapper(typeMapper);
+        CborMessageConverter cbor = new CborMessageConverter();
+        cbor.setJavaTypeMapper(typeMapper);
+
+        ContentTypeDelegatingMessageConverter converter =
+            new ContentTypeDelegatingMessageConverter("json".equalsIgnoreCase(outbound) ? json : cbor);
+        converter.addDelegate("application/json", json);
+        converter.addDelegate(CborMessageConverter.CONTENT_TYPE, cbor);
+        return converter;
+    }
+}
@@ -0,0 +1,101 @@
+package com.mikro.gateway.auth;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Date;
+import java.util.Optional;
+
+// Verifies each distinct bearer token once and caches the signed identity header to forward for it
+@Component
+public class GatewayJwtVerifier {
+    private final JwtParser parser;
+    private final IdentityHeader identityHeader;
+    private final Cache<String, Identity> verified;
+    private final Duration identityTtl;
+
+    public GatewayJwtVerifier(@Value("${jwt.secret}") String secret,
+                              @Value("${identity.secret}") String identitySecret,
+                              @Value("${identity.max-ttl-ms:300000}") long identityMaxTtlMs,
+                              @Value("${jwt.cache.max-size:50000}") long maxSize) {
+        this.parser = Jwts.parser()
+            .verifyWith(Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8)))
+            .build();
+        this.identityHeader = new IdentityHeader(identitySecret);
+        this.identityTtl = Duration.ofMillis(identityMaxTtlMs);
+        this.verified = Caffeine.newBuilder()
+            .maximumSize(maxSize)
+            .expireAfter(new Expiry<String, Identity>() {
+                @Override
+                public long expireAfterCreate(String key, Identity identity, long currentTime) {
+                    return Math.max(0, Duration.between(Instant.now(), identity.expiresAt()).toNanos());
+                }
+
+                @Override
+                public long expireAfterUpdate(String key, Identity identity, long currentTime, long currentDuration) {
+                    return currentDuration;
+                }
+
+                @Override
+                public long expireAfterRead(String key, Identity identity, long currentTime, long currentDuration) {
+                    return currentDuration;
+                }
+            })
+            .build();
+    }
+
+    // Empty when the token is malformed, badly signed or expired
+    public Optional<Identity> verify(String token) {
+        String key = digest(token);
+        Identity cached = verified.getIfPresent(key);
+        if (cached != null && cached.expiresAt().isAfter(Instant.now())) {
+            return Optional.of(cached);
+        }
+
+        Claims claims;
+        try {
+            claims = parser.parseSignedClaims(token).getPayload();
+        } catch (Exception ex) {
+            return Optional.empty();
+        }
+        String subject = claims.getSubject();
+        // Refresh tokens are never bearer credentials, even ones signed with the access key
+        if (subject == null || "refresh".equals(claims.get("type"))) {
+            return Optional.empty();
+        }
+        String role = String.valueOf(claims.getOrDefault("role", "ROLE_USER"));
+        // Tokens without exp still get a bounded identity; the header is re-signed after it lapses
+        Date exp = claims.getExpiration();
+        Instant cap = Instant.now().plus(identityTtl);
+        Instant expiresAt = exp != null && exp.toInstant().isBefore(cap) ? exp.toInstant() : cap;
+
+        Identity identity = new Identity(identityHeader.sign(subject, role, expiresAt), expiresAt);
+        verified.put(key, identity);
+        return Optional.of(identity);
+    }
+
+    // Keyed by a digest so the cache never holds usable bearer tokens
+    private static String digest(String token) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(hash);
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("SHA-256 not available", ex);
+        }
+    }
+
+    public record Identity(String header, Instant expiresAt) {}
+}
@@ -0,0 +1,61 @@
+package com.mikro.gateway.cache;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
+
+// The Cache-Control directives a shared cache acts on; unknown directives are ignored
+public record CacheControlDirectives(boolean noStore, boolean noCache, boolean isPrivate,
+                                     Duration maxAge, Duration sharedMaxAge, Duration staleWhileRevalidate) {
+    private static final CacheControlDirectives NONE = new CacheControlDirectives(false, false, false, null, null, null);
+
+    public static CacheControlDirectives parse(List<String> headerValues) {
+        if (headerValues == null || headerValues.isEmpty()) {
+            return NONE;
+        }
+        boolean noStore = false;
+        boolean noCache = false;
+        boolean isPrivate = false;
+        Duration maxAge = null;
+        Duration sharedMaxAge = null;
+        Duration staleWhileRevalidate = null;
+        for (String value : headerValues) {
+            for (String directive : value.split(",")) {
+                String[] parts = directive.trim().toLowerCase(Locale.ROOT).split("=", 2);
+                String name = parts[0].trim();
+                Duration seconds = parts.length == 2 ? seconds(parts[1]) : null;
+                switch (name) {
+                    case "no-store" -> noStore = true;
+                    case "no-cache" -> noCache = true;
+                    case "private" -> isPrivate = true;
+                    case "max-age" -> maxAge = seconds;
+                    case "s-maxage" -> sharedMaxAge = seconds;
+                    case "stale-while-revalidate" -> staleWhileRevalidate = seconds;
+                    default -> { }
+                }
+            }
+        }
+        return new CacheControlDirectives(noStore, noCache, isPrivate, maxAge, sharedMaxAge, staleWhileRevalidate);
+    }
+
+    // Request side: the client insists on a response checked with the origin
+    public boolean requiresOrigin() {
+        return noCache || (maxAge != null && maxAge.isZero());
+    }
+
+    // Response side: how long a shared cache may serve it as fresh, falling back to the route default
+    public Duration freshFor(Duration fallback) {
+        if (sharedMaxAge != null) {
+            return sharedMaxAge;
+        }
+        return maxAge != null ? maxAge : fallback;
+    }
+
+    private static Duration seconds(String value) {
+        try {
+            return Duration.ofSeconds(Long.parseLong(value.trim().replace("\"", "")));
+        } catch (NumberFormatException ex) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.mikro.gateway.cache;
+
+import org.springframework.http.HttpHeaders;
+
+import java.net.URI;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// A stored 200 response. Fresh until freshUntil, then served stale while one background revalidation runs,
+// until staleUntil. requestHeaders are the vary-header values the entry was keyed on, replayed on revalidation.
+public record CachedResponse(HttpHeaders headers, byte[] body, Long productId, URI revalidateUri,
+                             HttpHeaders requestHeaders, Instant storedAt, Duration ttl, Duration staleWindow,
+                             AtomicBoolean revalidating) {
+    public CachedResponse(HttpHeaders headers, byte[] body, Long productId, URI revalidateUri,
+                          HttpHeaders requestHeaders, Instant storedAt, Duration ttl, Duration staleWindow) {
+        this(headers, body, productId, revalidateUri, requestHeaders, storedAt, ttl, staleWindow, new AtomicBoolean());
+    }
+
+    public Instant freshUntil() {
+        return storedAt.plus(ttl);
+    }
+
+    public Instant staleUntil() {
+        return freshUntil().plus(staleWindow);
+    }
+
+    public boolean isFresh(Instant now) {
+        return now.isBefore(freshUntil());
+    }
+
+    public boolean isServable(Instant now) {
+        return now.isBefore(staleUntil());
+    }
+
+    // The origin answered 304: same body, fresh again
+    public CachedResponse revalidated(Instant now) {
+        return new CachedResponse(headers, body, productId, revalidateUri, requestHeaders, now, ttl, staleWindow);
+    }
+}
@@ -0,0 +1,90 @@
+package com.mikro.gateway.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Gateway-wide response cache, bounded by total body bytes. Entries drop out once past their stale window.
+// Invalidation is O(1): every entry is stamped with the generation of its group when fetched, and a product change
+// only moves generations forward. An item entry belongs to its product's generation; collection entries (listings,
+// scroll pages, searches) share one generation that only catalog changes move. Stock-only changes leave collections
+// alone, the route TTL bounds how long a listing shows old stock. Outdated entries are dropped when next read.
+@Component
+public class ResponseCacheStore {
+    private final Cache<String, Stored> cache;
+    private final int maxEntryBytes;
+    // Product id -> stamp of its last change; stamps are unique, so a generation never repeats
+    private final Map<Long, Long> productGenerations = new ConcurrentHashMap<>();
+    private final AtomicLong collectionGeneration = new AtomicLong();
+    private final AtomicLong stamps = new AtomicLong();
+
+    public ResponseCacheStore(@Value("${gateway.cache.max-bytes:67108864}") long maxBytes,
+                              @Value("${gateway.cache.max-entry-bytes:1048576}") int maxEntryBytes) {
+        this.maxEntryBytes = maxEntryBytes;
+        this.cache = Caffeine.newBuilder()
+            .maximumWeight(maxBytes)
+            .weigher((String key, Stored stored) -> key.length() * 2 + stored.entry().body().length + 512)
+            .expireAfter(new Expiry<String, Stored>() {
+                @Override
+                public long expireAfterCreate(String key, Stored stored, long currentTime) {
+                    return Math.max(0, Duration.between(Instant.now(), stored.entry().staleUntil()).toNanos());
+                }
+
+                @Override
+                public long expireAfterUpdate(String key, Stored stored, long currentTime, long currentDuration) {
+                    return expireAfterCreate(key, stored, currentTime);
+                }
+
+                @Override
+                public long expireAfterRead(String key, Stored stored, long currentTime, long currentDuration) {
+                    return currentDuration;
+                }
+            })
+            .build();
+    }
+
+    public CachedResponse get(String key) {
+        Stored stored = cache.getIfPresent(key);
+        if (stored == null) {
+            return null;
+        }
+        if (stored.generation() != generation(stored.entry().productId())) {
+            cache.asMap().remove(key, stored);
+            return null;
+        }
+        return stored.entry();
+    }
+
+    // Taken before fetching; a response fetched across a change of this generation is not stored
+    public long generation(Long productId) {
+        return productId != null ? productGenerations.getOrDefault(productId, 0L) : collectionGeneration.get();
+    }
+
+    public int maxEntryBytes() {
+        return maxEntryBytes;
+    }
+
+    public void put(String key, CachedResponse entry, long generationAtFetch) {
+        if (generation(entry.productId()) == generationAtFetch) {
+            // A change landing right after the check outdates the entry, get() then drops it
+            cache.put(key, new Stored(entry, generationAtFetch));
+        }
+    }
+
+    public void invalidateProduct(Long productId, boolean catalogChanged) {
+        productGenerations.put(productId, stamps.incrementAndGet());
+        if (catalogChanged) {
+            collectionGeneration.set(stamps.incrementAndGet());
+        }
+    }
+
+    private record Stored(CachedResponse entry, long generation) {}
+}
@@ -0,0 +1,46 @@
+package com.mikro.gateway.filter;
+
+import com.mikro.gateway.auth.GatewayJwtVerifier;
+import com.mikro.gateway.auth.IdentityHeader;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+// Verifies the bearer token at the edge and forwards a gateway-signed identity so services can skip JWT parsing.
+// Whatever identity header the client sent is always dropped; services fall back to the bearer token when absent.
+@Component
+public class IdentityPropagationFilter implements GlobalFilter, Ordered {
+    private final GatewayJwtVerifier jwtVerifier;
+
+    public IdentityPropagationFilter(GatewayJwtVerifier jwtVerifier) {
+        this.jwtVerifier = jwtVerifier;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        String authorization = exchange.getRequest().getHeaders().getFirst(HttpHeaders.AUTHORIZATION);
+        String identity = authorization != null && authorization.startsWith("Bearer ")
+            ? jwtVerifier.verify(authorization.substring(7)).map(GatewayJwtVerifier.Identity::header).orElse(null)
+            : null;
+
+        ServerHttpRequest request = exchange.getRequest().mutate()
+            .headers(headers -> {
+                headers.remove(IdentityHeader.NAME);
+                if (identity != null) {
+                    headers.set(IdentityHeader.NAME, identity);
+                }
+            })
+            .build();
+        return chain.filter(exchange.mutate().request(request).build());
+    }
+
+    @Override
+    public int getOrder() {
+        return Ordered.HIGHEST_PRECEDENCE;
+    }
+}
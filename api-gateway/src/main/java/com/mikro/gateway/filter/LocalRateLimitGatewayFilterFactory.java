@@ -0,0 +1,180 @@
+package com.mikro.gateway.filter;
+
+import com.mikro.gateway.auth.IdentityHeader;
+import com.mikro.gateway.ratelimit.RateLimitBuckets;
+import com.mikro.gateway.ratelimit.TokenBucket;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.OrderedGatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ipresolver.RemoteAddressResolver;
+import org.springframework.cloud.gateway.support.ipresolver.XForwardedRemoteAddressResolver;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR;
+
+// In-memory alternative to RequestRateLimiter that needs no Redis. Each route can limit per principal (the subject
+// of the gateway-verified identity), per client IP and for the route as a whole; a limit with a replenish rate of 0
+// is off. A request must pass every enabled bucket, checked from most to least specific, and is answered with 429
+// and Retry-After otherwise. RateLimit-Limit/-Remaining/-Reset describe the tightest bucket.
+// Limits are per gateway instance. The client IP is the socket peer; behind a load balancer that is the balancer's
+// address for every client, so set trusted-proxy-hops to read it from the X-Forwarded-For entries those proxies add.
+@Component
+public class LocalRateLimitGatewayFilterFactory
+        extends AbstractGatewayFilterFactory<LocalRateLimitGatewayFilterFactory.Config> {
+    private final RateLimitBuckets buckets;
+    private final RemoteAddressResolver clientAddress;
+
+    public LocalRateLimitGatewayFilterFactory(RateLimitBuckets buckets,
+                                              @Value("${gateway.rate-limit.trusted-proxy-hops:0}") int trustedProxyHops) {
+        super(Config.class);
+        this.buckets = buckets;
+        // Only entries appended by our own proxies are trusted; anything further left is client-supplied
+        this.clientAddress = trustedProxyHops > 0
+            ? XForwardedRemoteAddressResolver.maxTrustedIndex(trustedProxyHops)
+            : new RemoteAddressResolver() { };
+    }
+
+    @Override
+    public GatewayFilter apply(Config config) {
+        // Right after IdentityPropagationFilter, ahead of caching and proxying
+        return new OrderedGatewayFilter((exchange, chain) -> {
+            TokenBucket.Probe tightest = null;
+            for (Limit limit : limits(exchange, config)) {
+                TokenBucket.Probe probe = buckets.tryConsume(limit.key(), limit.burstCapacity(), limit.replenishRate());
+                if (!probe.allowed()) {
+                    return reject(exchange.getResponse(), probe);
+                }
+                if (tightest == null || probe.remaining() < tightest.remaining()) {
+                    tightest = probe;
+                }
+            }
+            if (tightest != null) {
+                setHeaders(exchange.getResponse().getHeaders(), tightest);
+            }
+            return chain.filter(exchange);
+        }, Ordered.HIGHEST_PRECEDENCE + 1);
+    }
+
+    private List<Limit> limits(ServerWebExchange exchange, Config config) {
+        Route route = exchange.getAttribute(GATEWAY_ROUTE_ATTR);
+        String routeId = route != null ? route.getId() : "";
+        String subject = subject(exchange.getRequest().getHeaders().getFirst(IdentityHeader.NAME));
+        InetSocketAddress remote = clientAddress.resolve(exchange);
+        String ip = remote != null && remote.getAddress() != null ? remote.getAddress().getHostAddress() : null;
+
+        List<Limit> limits = new ArrayList<>(3);
+        if (subject != null && config.getPrincipalReplenishRate() > 0) {
+            limits.add(new Limit(routeId + "|user|" + subject, config.getPrincipalBurstCapacity(), config.getPrincipalReplenishRate()));
+        }
+        if (ip != null && config.getIpReplenishRate() > 0) {
+            limits.add(new Limit(routeId + "|ip|" + ip, config.getIpBurstCapacity(), config.getIpReplenishRate()));
+        }
+        if (config.getRouteReplenishRate() > 0) {
+            limits.add(new Limit(routeId + "|route", config.getRouteBurstCapacity(), config.getRouteReplenishRate()));
+        }
+        return limits;
+    }
+
+    // The identity header is set by the gateway itself; its first segment is the base64url subject
+    private static String subject(String identity) {
+        if (identity == null) {
+            return null;
+        }
+        int dot = identity.indexOf('.');
+        if (dot <= 0) {
+            return null;
+        }
+        try {
+            return new String(Base64.getUrlDecoder().decode(identity.substring(0, dot)), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException ex) {
+            return null;
+        }
+    }
+
+    private static Mono<Void> reject(ServerHttpResponse response, TokenBucket.Probe probe) {
+        response.setStatusCode(HttpStatus.TOO_MANY_REQUESTS);
+        setHeaders(response.getHeaders(), probe);
+        response.getHeaders().set(HttpHeaders.RETRY_AFTER, String.valueOf(Math.max(1, probe.retryAfterSeconds())));
+        return response.setComplete();
+    }
+
+    private static void setHeaders(HttpHeaders headers, TokenBucket.Probe probe) {
+        headers.set("RateLimit-Limit", String.valueOf(probe.limit()));
+        headers.set("RateLimit-Remaining", String.valueOf(probe.remaining()));
+        headers.set("RateLimit-Reset", String.valueOf(probe.resetSeconds()));
+    }
+
+    private record Limit(String key, long burstCapacity, double replenishRate) {}
+
+    // Replenish rates are tokens per second; a burst capacity below the rate is raised to it
+    public static class Config {
+        private double principalReplenishRate;
+        private long principalBurstCapacity;
+        private double ipReplenishRate;
+        private long ipBurstCapacity;
+        private double routeReplenishRate;
+        private long routeBurstCapacity;
+
+        public double getPrincipalReplenishRate() {
+            return principalReplenishRate;
+        }
+
+        public void setPrincipalReplenishRate(double principalReplenishRate) {
+            this.principalReplenishRate = principalReplenishRate;
+        }
+
+        public long getPrincipalBurstCapacity() {
+            return Math.max(principalBurstCapacity, (long) Math.ceil(principalReplenishRate));
+        }
+
+        public void setPrincipalBurstCapacity(long principalBurstCapacity) {
+            this.principalBurstCapacity = principalBurstCapacity;
+        }
+
+        public double getIpReplenishRate() {
+            return ipReplenishRate;
+        }
+
+        public void setIpReplenishRate(double ipReplenishRate) {
+            this.ipReplenishRate = ipReplenishRate;
+        }
+
+        public long getIpBurstCapacity() {
+            return Math.max(ipBurstCapacity, (long) Math.ceil(ipReplenishRate));
+        }
+
+        public void setIpBurstCapacity(long ipBurstCapacity) {
+            this.ipBurstCapacity = ipBurstCapacity;
+        }
+
+        public double getRouteReplenishRate() {
+            return routeReplenishRate;
+        }
+
+        public void setRouteReplenishRate(double routeReplenishRate) {
+            this.routeReplenishRate = routeReplenishRate;
+        }
+
+        public long getRouteBurstCapacity() {
+            return Math.max(routeBurstCapacity, (long) Math.ceil(routeReplenishRate));
+        }
+
+        public void setRouteBurstCapacity(long routeBurstCapacity) {
+            this.routeBurstCapacity = routeBurstCapacity;
+        }
+    }
+}
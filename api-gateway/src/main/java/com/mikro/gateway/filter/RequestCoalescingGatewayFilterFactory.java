@@ -0,0 +1,240 @@
+package com.mikro.gateway.filter;
+
+import com.mikro.gateway.auth.IdentityHeader;
+import org.reactivestreams.Publisher;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.NettyWriteResponseFilter;
+import org.springframework.cloud.gateway.filter.OrderedGatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR;
+
+// Single-flight for idempotent reads: identical GET requests (same route, path, sorted query, vary headers and
+// auth scope) that arrive while one is already upstream wait for that call instead of making their own. The
+// leader's body is buffered once and every follower writes a wrapper around the same bytes. A follower that waits
+// longer than maxWait, joins a full group, or whose leader failed, answered other than a full 2xx body or set a
+// cookie goes upstream itself. Conditional and range requests are never coalesced: their answer (304, 206) depends
+// on validators that are not part of the key.
+@Component
+public class RequestCoalescingGatewayFilterFactory
+        extends AbstractGatewayFilterFactory<RequestCoalescingGatewayFilterFactory.Config> {
+    public static final String COALESCED_HEADER = "X-Coalesced";
+
+    private static final byte[] EMPTY = new byte[0];
+    private static final List<String> PER_REQUEST_HEADERS = List.of(HttpHeaders.IF_NONE_MATCH,
+        HttpHeaders.IF_MODIFIED_SINCE, HttpHeaders.IF_MATCH, HttpHeaders.IF_UNMODIFIED_SINCE, HttpHeaders.RANGE);
+
+    private final Map<String, Flight> inFlight = new ConcurrentHashMap<>();
+
+    public RequestCoalescingGatewayFilterFactory() {
+        super(Config.class);
+    }
+
+    @Override
+    public List<String> shortcutFieldOrder() {
+        return List.of("maxWait", "maxGroupSize");
+    }
+
+    @Override
+    public GatewayFilter apply(Config config) {
+        // After the response cache, so only misses are coalesced, and before the proxied body is written
+        return new OrderedGatewayFilter((exchange, chain) -> filter(exchange, chain, config),
+            NettyWriteResponseFilter.WRITE_RESPONSE_FILTER_ORDER - 1);
+    }
+
+    private Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain, Config config) {
+        ServerHttpRequest request = exchange.getRequest();
+        if (request.getMethod() != HttpMethod.GET
+                || PER_REQUEST_HEADERS.stream().anyMatch(request.getHeaders()::containsKey)) {
+            return chain.filter(exchange);
+        }
+        String key = key(exchange, config);
+        while (true) {
+            Flight flight = inFlight.get(key);
+            if (flight == null) {
+                Flight mine = new Flight();
+                if (inFlight.putIfAbsent(key, mine) == null) {
+                    return lead(exchange, chain, key, mine);
+                }
+                continue;
+            }
+            if (flight.size().incrementAndGet() > config.getMaxGroupSize()) {
+                return chain.filter(exchange);
+            }
+            return follow(exchange, chain, flight, config);
+        }
+    }
+
+    private Mono<Void> lead(ServerWebExchange exchange, GatewayFilterChain chain, String key, Flight flight) {
+        ServerHttpResponseDecorator response = new ServerHttpResponseDecorator(exchange.getResponse()) {
+            @Override
+            public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+                if (getHeaders().containsKey(HttpHeaders.SET_COOKIE)) {
+                    abandon(key, flight, "Leader response sets a cookie");
+                    return super.writeWith(body);
+                }
+                // Errors, redirects, 304 and partial content are answered to the leader only
+                HttpStatusCode status = getStatusCode();
+                if (status == null || !status.is2xxSuccessful() || status.value() == 206) {
+                    abandon(key, flight, "Leader response is not a full 2xx body");
+                    return super.writeWith(body);
+                }
+                return DataBufferUtils.join(Flux.from(body))
+                    .map(joined -> {
+                        byte[] bytes = new byte[joined.readableByteCount()];
+                        joined.read(bytes);
+                        DataBufferUtils.release(joined);
+                        return bytes;
+                    })
+                    .defaultIfEmpty(EMPTY)
+                    .flatMap(bytes -> {
+                        inFlight.remove(key, flight);
+                        flight.result().complete(new SharedResponse(getStatusCode(), SharedResponseHeaders.copyOf(getHeaders()), bytes));
+                        return super.writeWith(Mono.just(bufferFactory().wrap(bytes)));
+                    });
+            }
+        };
+        return chain.filter(exchange.mutate().response(response).build())
+            .doFinally(signal -> abandon(key, flight, "Leader finished without a shareable response"));
+    }
+
+    private Mono<Void> follow(ServerWebExchange exchange, GatewayFilterChain chain, Flight flight, Config config) {
+        // suppressCancel: a follower timing out must not cancel the leader's result for the others
+        return Mono.fromFuture(flight.result(), true)
+            .timeout(config.getMaxWait())
+            .map(Optional::of)
+            .onErrorReturn(Optional.empty())
+            .flatMap(shared -> shared.isPresent() ? serve(exchange, shared.get()) : chain.filter(exchange));
+    }
+
+    private Mono<Void> serve(ServerWebExchange exchange, SharedResponse shared) {
+        ServerHttpResponse response = exchange.getResponse();
+        response.setStatusCode(shared.status());
+        SharedResponseHeaders.applyTo(shared.headers(), response.getHeaders());
+        response.getHeaders().set(COALESCED_HEADER, "follower");
+        response.getHeaders().setContentLength(shared.body().length);
+        if (shared.body().length == 0) {
+            return response.setComplete();
+        }
+        // wrap() shares the leader's bytes, nothing is copied per follower
+        return response.writeWith(Mono.just(response.bufferFactory().wrap(shared.body())));
+    }
+
+    // Followers of an abandoned flight make their own calls; no-op once the result is set
+    private void abandon(String key, Flight flight, String reason) {
+        if (!flight.result().isDone()) {
+            inFlight.remove(key, flight);
+            flight.result().completeExceptionally(new CancellationException(reason));
+        }
+    }
+
+    private static String key(ServerWebExchange exchange, Config config) {
+        ServerHttpRequest request = exchange.getRequest();
+        Route route = exchange.getAttribute(GATEWAY_ROUTE_ATTR);
+        return (route != null ? route.getId() : "") + " "
+            + RequestKeys.pathAndQuery(request)
+            + RequestKeys.suffix(RequestKeys.headerValues(request, config.getVaryHeaders()))
+            + "|scope=" + scope(request, config.getScope());
+    }
+
+    private static String scope(ServerHttpRequest request, Scope scope) {
+        String identity = request.getHeaders().getFirst(IdentityHeader.NAME);
+        return switch (scope) {
+            case SHARED -> "";
+            case AUTHENTICATED -> identity != null ? "authenticated" : "anonymous";
+            // subject and role, without the expiry and signature that differ between tokens of the same user
+            case USER -> identity != null ? identity.substring(0, nthDot(identity, 2)) : "anonymous";
+        };
+    }
+
+    private static int nthDot(String value, int n) {
+        int index = -1;
+        for (int i = 0; i < n; i++) {
+            index = value.indexOf('.', index + 1);
+            if (index < 0) {
+                return value.length();
+            }
+        }
+        return index;
+    }
+
+    private record Flight(CompletableFuture<SharedResponse> result, AtomicInteger size) {
+        Flight() {
+            this(new CompletableFuture<>(), new AtomicInteger(1));
+        }
+    }
+
+    private record SharedResponse(HttpStatusCode status, HttpHeaders headers, byte[] body) {}
+
+    // Whose requests may share one upstream call
+    public enum Scope {
+        // Same signed-in user
+        USER,
+        // Any signed-in user shares with any other; anonymous requests with each other
+        AUTHENTICATED,
+        // Everyone; only for routes that ignore the caller entirely
+        SHARED
+    }
+
+    public static class Config {
+        private Duration maxWait = Duration.ofSeconds(2);
+        private int maxGroupSize = 1000;
+        private Scope scope = Scope.USER;
+        private List<String> varyHeaders = List.of(HttpHeaders.ACCEPT);
+
+        public Duration getMaxWait() {
+            return maxWait;
+        }
+
+        public void setMaxWait(Duration maxWait) {
+            this.maxWait = maxWait;
+        }
+
+        public int getMaxGroupSize() {
+            return maxGroupSize;
+        }
+
+        public void setMaxGroupSize(int maxGroupSize) {
+            this.maxGroupSize = maxGroupSize;
+        }
+
+        public Scope getScope() {
+            return scope;
+        }
+
+        public void setScope(Scope scope) {
+            this.scope = scope;
+        }
+
+        public List<String> getVaryHeaders() {
+            return varyHeaders;
+        }
+
+        public void setVaryHeaders(List<String> varyHeaders) {
+            this.varyHeaders = varyHeaders;
+        }
+    }
+}
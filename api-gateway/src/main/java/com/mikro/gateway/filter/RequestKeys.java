@@ -0,0 +1,45 @@
+package com.mikro.gateway.filter;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.util.MultiValueMap;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.TreeMap;
+
+// Building blocks for keys that identify equivalent GET requests
+final class RequestKeys {
+    private RequestKeys() {
+    }
+
+    // Query parameters are sorted so ?a=1&b=2 and ?b=2&a=1 get the same key
+    static String pathAndQuery(ServerHttpRequest request) {
+        MultiValueMap<String, String> query = new LinkedMultiValueMap<>(new TreeMap<>(request.getQueryParams()));
+        String path = request.getPath().value();
+        if (query.isEmpty()) {
+            return path;
+        }
+        return path + "?" + UriComponentsBuilder.newInstance().queryParams(query).build().encode().getQuery();
+    }
+
+    static HttpHeaders headerValues(ServerHttpRequest request, List<String> names) {
+        HttpHeaders values = new HttpHeaders();
+        for (String name : names) {
+            List<String> header = request.getHeaders().get(name);
+            if (header != null) {
+                values.put(name, header);
+            }
+        }
+        return values;
+    }
+
+    static String suffix(HttpHeaders headerValues) {
+        StringBuilder suffix = new StringBuilder();
+        headerValues.forEach((name, values) ->
+            suffix.append('|').append(name.toLowerCase(Locale.ROOT)).append('=').append(String.join(",", values)));
+        return suffix.toString();
+    }
+}
@@ -0,0 +1,326 @@
+package com.mikro.gateway.filter;
+
+import com.mikro.gateway.auth.IdentityHeader;
+import com.mikro.gateway.cache.CacheControlDirectives;
+import com.mikro.gateway.cache.CachedResponse;
+import com.mikro.gateway.cache.ResponseCacheStore;
+import org.reactivestreams.Publisher;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cloud.client.loadbalancer.reactive.ReactorLoadBalancerExchangeFilterFunction;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.NettyWriteResponseFilter;
+import org.springframework.cloud.gateway.filter.OrderedGatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.server.PathContainer;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.util.UriComponentsBuilder;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.net.URI;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_REQUEST_URL_ATTR;
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR;
+
+// Shared response cache for read-mostly GET routes. Keyed by path, normalized query and the configured request
+// headers. A fresh entry is served directly; a stale one is served while a single background request revalidates
+// it against the route's service (conditionally, with the cached ETag). Request and response Cache-Control are
+// honoured, and product-change events invalidate entries through ResponseCacheStore.
+//
+// With requireIdentity (the default) only requests carrying a gateway-verified identity use the cache, and the
+// entry is shared between them: meant for routes whose responses depend on being signed in, not on who.
+@Component
+public class ResponseCacheGatewayFilterFactory extends AbstractGatewayFilterFactory<ResponseCacheGatewayFilterFactory.Config> {
+    public static final String CACHE_STATUS_HEADER = "X-Cache";
+
+    private static final Logger log = LoggerFactory.getLogger(ResponseCacheGatewayFilterFactory.class);
+
+    private final ResponseCacheStore store;
+    private final WebClient revalidationClient;
+
+    public ResponseCacheGatewayFilterFactory(ResponseCacheStore store,
+                                             ReactorLoadBalancerExchangeFilterFunction loadBalancer) {
+        super(Config.class);
+        this.store = store;
+        this.revalidationClient = WebClient.builder()
+            .filter(loadBalancer)
+            .codecs(codecs -> codecs.defaultCodecs().maxInMemorySize(store.maxEntryBytes()))
+            .build();
+    }
+
+    @Override
+    public List<String> shortcutFieldOrder() {
+        return List.of("ttl", "staleWhileRevalidate");
+    }
+
+    @Override
+    public GatewayFilter apply(Config config) {
+        PathPattern itemPattern = config.getItemPath() != null
+            ? PathPatternParser.defaultInstance.parse(config.getItemPath()) : null;
+        // Must wrap the response before NettyWriteResponseFilter writes the proxied body, and runs ahead of request
+        // coalescing so hits never wait on a group
+        return new OrderedGatewayFilter((exchange, chain) -> filter(exchange, chain, config, itemPattern),
+            NettyWriteResponseFilter.WRITE_RESPONSE_FILTER_ORDER - 2);
+    }
+
+    private Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain, Config config, PathPattern itemPattern) {
+        ServerHttpRequest request = exchange.getRequest();
+        if (request.getMethod() != HttpMethod.GET) {
+            return chain.filter(exchange);
+        }
+        CacheControlDirectives requested = CacheControlDirectives.parse(request.getHeaders().get(HttpHeaders.CACHE_CONTROL));
+        String identity = request.getHeaders().getFirst(IdentityHeader.NAME);
+        if (requested.noStore() || (config.isRequireIdentity() && identity == null)) {
+            exchange.getResponse().getHeaders().set(CACHE_STATUS_HEADER, "BYPASS");
+            return chain.filter(exchange);
+        }
+
+        HttpHeaders varyValues = RequestKeys.headerValues(request, config.getVaryHeaders());
+        String key = RequestKeys.pathAndQuery(request) + RequestKeys.suffix(varyValues);
+        if (!requested.requiresOrigin()) {
+            Instant now = Instant.now();
+            CachedResponse cached = store.get(key);
+            if (cached != null && cached.isServable(now)) {
+                boolean fresh = cached.isFresh(now);
+                if (!fresh) {
+                    revalidate(key, cached, identity, config);
+                }
+                return serve(exchange, cached, fresh ? "HIT" : "STALE", now);
+            }
+        }
+        return fetchAndStore(exchange, chain, key, varyValues, config, itemPattern);
+    }
+
+    private Mono<Void> serve(ServerWebExchange exchange, CachedResponse cached, String cacheStatus, Instant now) {
+        ServerHttpResponse response = exchange.getResponse();
+        HttpHeaders headers = response.getHeaders();
+        SharedResponseHeaders.applyTo(cached.headers(), headers);
+        headers.set(HttpHeaders.AGE, String.valueOf(Math.max(0, Duration.between(cached.storedAt(), now).toSeconds())));
+        headers.set(CACHE_STATUS_HEADER, cacheStatus);
+
+        if (etagMatches(exchange.getRequest().getHeaders().getFirst(HttpHeaders.IF_NONE_MATCH), cached.headers().getETag())) {
+            response.setStatusCode(HttpStatus.NOT_MODIFIED);
+            headers.remove(HttpHeaders.CONTENT_TYPE);
+            return response.setComplete();
+        }
+        response.setStatusCode(HttpStatus.OK);
+        headers.setContentLength(cached.body().length);
+        return response.writeWith(Mono.just(response.bufferFactory().wrap(cached.body())));
+    }
+
+    private Mono<Void> fetchAndStore(ServerWebExchange exchange, GatewayFilterChain chain, String key,
+                                     HttpHeaders varyValues, Config config, PathPattern itemPattern) {
+        Long productId = productId(exchange.getRequest(), itemPattern);
+        long generation = store.generation(productId);
+        ServerHttpResponseDecorator response = new ServerHttpResponseDecorator(exchange.getResponse()) {
+            @Override
+            public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+                getHeaders().set(CACHE_STATUS_HEADER, "MISS");
+                CacheControlDirectives directives = CacheControlDirectives.parse(getHeaders().get(HttpHeaders.CACHE_CONTROL));
+                if (!storable(getStatusCode(), getHeaders(), directives)) {
+                    return super.writeWith(body);
+                }
+                return DataBufferUtils.join(Flux.from(body))
+                    .map(joined -> {
+                        byte[] bytes = new byte[joined.readableByteCount()];
+                        joined.read(bytes);
+                        DataBufferUtils.release(joined);
+                        return bytes;
+                    })
+                    .defaultIfEmpty(new byte[0])
+                    .flatMap(bytes -> {
+                        CachedResponse entry = toEntry(getHeaders(), bytes, directives, revalidateUri(exchange),
+                            productId, varyValues, config);
+                        if (entry != null) {
+                            store.put(key, entry, generation);
+                        }
+                        return super.writeWith(Mono.just(bufferFactory().wrap(bytes)));
+                    });
+            }
+        };
+        return chain.filter(exchange.mutate().response(response).build());
+    }
+
+    // Serves the stale entry meanwhile; at most one revalidation per entry is in flight
+    private void revalidate(String key, CachedResponse cached, String identity, Config config) {
+        if (cached.revalidateUri() == null || !cached.revalidating().compareAndSet(false, true)) {
+            return;
+        }
+        long generation = store.generation(cached.productId());
+        String etag = cached.headers().getETag();
+        revalidationClient.get()
+            .uri(cached.revalidateUri())
+            .headers(headers -> {
+                headers.addAll(cached.requestHeaders());
+                headers.set(IdentityHeader.NAME, identity);
+                if (etag != null) {
+                    headers.setIfNoneMatch(etag);
+                }
+            })
+            .exchangeToMono(response -> {
+                if (response.statusCode().value() == HttpStatus.NOT_MODIFIED.value()) {
+                    store.put(key, cached.revalidated(Instant.now()), generation);
+                    return response.releaseBody();
+                }
+                if (!storable(response.statusCode(), response.headers().asHttpHeaders(),
+                        CacheControlDirectives.parse(response.headers().header(HttpHeaders.CACHE_CONTROL)))) {
+                    // Keep serving the stale entry until its window ends
+                    return response.releaseBody();
+                }
+                HttpHeaders headers = response.headers().asHttpHeaders();
+                return response.bodyToMono(byte[].class)
+                    .defaultIfEmpty(new byte[0])
+                    .doOnNext(bytes -> {
+                        CachedResponse entry = toEntry(headers, bytes,
+                            CacheControlDirectives.parse(headers.get(HttpHeaders.CACHE_CONTROL)),
+                            cached.revalidateUri(), cached.productId(), cached.requestHeaders(), config);
+                        if (entry != null) {
+                            store.put(key, entry, generation);
+                        }
+                    })
+                    .then();
+            })
+            .timeout(config.getRevalidateTimeout())
+            .doFinally(signal -> cached.revalidating().set(false))
+            .subscribe(null, ex -> log.debug("Revalidating {} failed: {}", cached.revalidateUri(), ex.getMessage()));
+    }
+
+    private static boolean storable(HttpStatusCode status, HttpHeaders headers, CacheControlDirectives directives) {
+        return status != null && status.value() == HttpStatus.OK.value()
+            && !directives.noStore() && !directives.noCache() && !directives.isPrivate()
+            && !headers.containsKey(HttpHeaders.SET_COOKIE)
+            && !headers.getVary().contains("*");
+    }
+
+    private CachedResponse toEntry(HttpHeaders responseHeaders, byte[] body, CacheControlDirectives directives,
+                                   URI revalidateUri, Long productId, HttpHeaders varyValues, Config config) {
+        Duration ttl = directives.freshFor(config.getTtl());
+        Duration staleWindow = directives.staleWhileRevalidate() != null
+            ? directives.staleWhileRevalidate() : config.getStaleWhileRevalidate();
+        if (body.length > store.maxEntryBytes() || (ttl.isZero() && staleWindow.isZero())) {
+            return null;
+        }
+        return new CachedResponse(SharedResponseHeaders.copyOf(responseHeaders), body, productId, revalidateUri,
+            varyValues, Instant.now(), ttl, staleWindow);
+    }
+
+    // The route's lb:// URI with the path and query as they were forwarded
+    private static URI revalidateUri(ServerWebExchange exchange) {
+        Route route = exchange.getAttribute(GATEWAY_ROUTE_ATTR);
+        URI forwarded = exchange.getAttribute(GATEWAY_REQUEST_URL_ATTR);
+        if (route == null || forwarded == null) {
+            return null;
+        }
+        return UriComponentsBuilder.fromUri(route.getUri())
+            .replacePath(forwarded.getRawPath())
+            .replaceQuery(forwarded.getRawQuery())
+            .build(true)
+            .toUri();
+    }
+
+    private static Long productId(ServerHttpRequest request, PathPattern itemPattern) {
+        if (itemPattern == null) {
+            return null;
+        }
+        PathPattern.PathMatchInfo match = itemPattern.matchAndExtract(PathContainer.parsePath(request.getPath().value()));
+        if (match == null) {
+            return null;
+        }
+        try {
+            return Long.valueOf(match.getUriVariables().get("id"));
+        } catch (NumberFormatException ex) {
+            return null;
+        }
+    }
+
+    static boolean etagMatches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null || etag == null) {
+            return false;
+        }
+        String current = etag.startsWith("W/") ? etag.substring(2) : etag;
+        for (String candidate : ifNoneMatch.split(",")) {
+            String trimmed = candidate.trim();
+            if (trimmed.equals("*") || (trimmed.startsWith("W/") ? trimmed.substring(2) : trimmed).equals(current)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public static class Config {
+        private Duration ttl = Duration.ofSeconds(5);
+        private Duration staleWhileRevalidate = Duration.ofSeconds(30);
+        private List<String> varyHeaders = List.of(HttpHeaders.ACCEPT);
+        // Item route whose {id} is a product id, so a change to that product drops just its entry
+        private String itemPath;
+        private boolean requireIdentity = true;
+        private Duration revalidateTimeout = Duration.ofSeconds(5);
+
+        public Duration getTtl() {
+            return ttl;
+        }
+
+        public void setTtl(Duration ttl) {
+            this.ttl = ttl;
+        }
+
+        public Duration getStaleWhileRevalidate() {
+            return staleWhileRevalidate;
+        }
+
+        public void setStaleWhileRevalidate(Duration staleWhileRevalidate) {
+            this.staleWhileRevalidate = staleWhileRevalidate;
+        }
+
+        public List<String> getVaryHeaders() {
+            return varyHeaders;
+        }
+
+        public void setVaryHeaders(List<String> varyHeaders) {
+            this.varyHeaders = varyHeaders;
+        }
+
+        public String getItemPath() {
+            return itemPath;
+        }
+
+        public void setItemPath(String itemPath) {
+            this.itemPath = itemPath;
+        }
+
+        public boolean isRequireIdentity() {
+            return requireIdentity;
+        }
+
+        public void setRequireIdentity(boolean requireIdentity) {
+            this.requireIdentity = requireIdentity;
+        }
+
+        public Duration getRevalidateTimeout() {
+            return revalidateTimeout;
+        }
+
+        public void setRevalidateTimeout(Duration revalidateTimeout) {
+            this.revalidateTimeout = revalidateTimeout;
+        }
+    }
+}
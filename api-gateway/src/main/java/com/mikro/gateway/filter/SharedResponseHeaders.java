@@ -0,0 +1,40 @@
+package com.mikro.gateway.filter;
+
+import org.springframework.http.HttpHeaders;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+// Response headers that may be replayed to another client: hop-by-hop and per-response headers are dropped, and so
+// are CORS and Vary headers, which the gateway adds again for each request's own Origin.
+final class SharedResponseHeaders {
+    private static final Set<String> UNSHARED = Set.of(
+        "connection", "keep-alive", "transfer-encoding", "te", "trailer", "upgrade", "proxy-authenticate",
+        "set-cookie", "content-length", "age", "vary",
+        ResponseCacheGatewayFilterFactory.CACHE_STATUS_HEADER.toLowerCase(Locale.ROOT),
+        RequestCoalescingGatewayFilterFactory.COALESCED_HEADER.toLowerCase(Locale.ROOT));
+
+    private SharedResponseHeaders() {
+    }
+
+    static HttpHeaders copyOf(HttpHeaders headers) {
+        HttpHeaders shared = new HttpHeaders();
+        headers.forEach((name, values) -> {
+            String lower = name.toLowerCase(Locale.ROOT);
+            if (!UNSHARED.contains(lower) && !lower.startsWith("access-control-")) {
+                shared.put(name, List.copyOf(values));
+            }
+        });
+        return HttpHeaders.readOnlyHttpHeaders(shared);
+    }
+
+    // Headers the gateway already set on this response win
+    static void applyTo(HttpHeaders shared, HttpHeaders target) {
+        shared.forEach((name, values) -> {
+            if (!target.containsKey(name)) {
+                target.put(name, values);
+            }
+        });
+    }
+}
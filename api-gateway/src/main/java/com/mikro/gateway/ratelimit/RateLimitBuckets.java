@@ -0,0 +1,29 @@
+package com.mikro.gateway.ratelimit;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+// Buckets for every rate-limited key (principal, IP, route). Buckets idle for longer than idle-eviction are dropped;
+// as long as that exceeds burst / replenish rate they have refilled by then, so a fresh full bucket is equivalent.
+// max-keys caps memory under key floods.
+@Component
+public class RateLimitBuckets {
+    private final Cache<String, TokenBucket> buckets;
+
+    public RateLimitBuckets(@Value("${gateway.rate-limit.max-keys:2000000}") long maxKeys,
+                            @Value("${gateway.rate-limit.idle-eviction-ms:600000}") long idleEvictionMs) {
+        this.buckets = Caffeine.newBuilder()
+            .maximumSize(maxKeys)
+            .expireAfterAccess(Duration.ofMillis(idleEvictionMs))
+            .build();
+    }
+
+    public TokenBucket.Probe tryConsume(String key, long capacity, double refillPerSecond) {
+        long now = System.nanoTime();
+        return buckets.get(key, k -> new TokenBucket(capacity, now)).tryConsume(capacity, refillPerSecond, now);
+    }
+}
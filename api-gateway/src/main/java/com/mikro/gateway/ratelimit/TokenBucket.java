@@ -0,0 +1,41 @@
+package com.mikro.gateway.ratelimit;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+// Lock-free token bucket: the state is an immutable snapshot swapped with compareAndSet, refilled lazily from the
+// elapsed time on each call. Starts full, so a new key may burst up to its capacity.
+public final class TokenBucket {
+    private static final double NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    private final AtomicReference<State> state;
+
+    public TokenBucket(long capacity, long nowNanos) {
+        this.state = new AtomicReference<>(new State(capacity, nowNanos));
+    }
+
+    public Probe tryConsume(long capacity, double refillPerSecond, long nowNanos) {
+        while (true) {
+            State current = state.get();
+            // Calls may race with slightly older clocks; time never runs backwards for the bucket
+            long at = Math.max(current.at(), nowNanos);
+            double available = Math.min(capacity, current.tokens() + (at - current.at()) * refillPerSecond / NANOS_PER_SECOND);
+            boolean allowed = available >= 1;
+            State next = new State(allowed ? available - 1 : available, at);
+            if (state.compareAndSet(current, next)) {
+                return new Probe(allowed, capacity, (long) Math.floor(next.tokens()),
+                    secondsUntil(1 - next.tokens(), refillPerSecond),
+                    secondsUntil(capacity - next.tokens(), refillPerSecond));
+            }
+        }
+    }
+
+    private static long secondsUntil(double missingTokens, double refillPerSecond) {
+        return missingTokens <= 0 ? 0 : (long) Math.ceil(missingTokens / refillPerSecond);
+    }
+
+    private record State(double tokens, long at) {}
+
+    // retryAfterSeconds: until the next request would pass; resetSeconds: until the bucket is full again
+    public record Probe(boolean allowed, long limit, long remaining, long retryAfterSeconds, long resetSeconds) {}
+}
@@ -0,0 +1,94 @@
+package com.mikro.gateway;
+
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// The configured routes, with every lb:// target pointed at a stub backend that records the paths it receives
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+    "eureka.client.enabled=false",
+    "spring.cloud.discovery.enabled=false",
+    "spring.rabbitmq.listener.simple.auto-startup=false"
+})
+class GatewayRoutesTest {
+    private static final List<String> received = new CopyOnWriteArrayList<>();
+    private static final HttpServer backend = startBackend();
+
+    @Autowired
+    private WebTestClient client;
+
+    @DynamicPropertySource
+    static void routeToBackend(DynamicPropertyRegistry registry) {
+        String uri = "http://localhost:" + backend.getAddress().getPort();
+        for (int route = 0; route < 3; route++) {
+            registry.add("spring.cloud.gateway.routes[" + route + "].uri", () -> uri);
+        }
+    }
+
+    @AfterAll
+    static void stopBackend() {
+        backend.stop(0);
+    }
+
+    @Test
+    void loginReachesTheAuthService() {
+        client.post().uri("/api/v1/auth/login")
+            .contentType(MediaType.APPLICATION_JSON)
+            .bodyValue("{\"username\":\"u\",\"password\":\"p\"}")
+            .exchange()
+            .expectStatus().isOk()
+            .expectHeader().exists("RateLimit-Remaining");
+
+        assertThat(received).contains("POST /api/v1/auth/login");
+    }
+
+    @Test
+    void productAndOrderPathsAreForwardedUnchanged() {
+        client.get().uri("/api/v1/products/7").exchange().expectStatus().isOk();
+        client.get().uri("/api/v1/orders/3").exchange().expectStatus().isOk();
+
+        assertThat(received).contains("GET /api/v1/products/7", "GET /api/v1/orders/3");
+    }
+
+    @Test
+    void unroutedPathsAreNotForwarded() {
+        client.get().uri("/product-service/api/v1/products/7").exchange().expectStatus().isNotFound();
+
+        assertThat(received).noneMatch(request -> request.contains("/product-service/"));
+    }
+
+    private static HttpServer startBackend() {
+        try {
+            HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+            server.createContext("/", exchange -> {
+                received.add(exchange.getRequestMethod() + " " + exchange.getRequestURI());
+                byte[] body = "{}".getBytes(StandardCharsets.UTF_8);
+                exchange.getResponseHeaders().set("Content-Type", "application/json");
+                exchange.sendResponseHeaders(200, body.length);
+                try (OutputStream out = exchange.getResponseBody()) {
+                    out.write(body);
+                }
+            });
+            server.start();
+            return server;
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+}
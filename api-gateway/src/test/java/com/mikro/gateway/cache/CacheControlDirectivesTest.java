@@ -0,0 +1,58 @@
+package com.mikro.gateway.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CacheControlDirectivesTest {
+
+    @Test
+    void missingHeaderHasNoDirectives() {
+        CacheControlDirectives directives = CacheControlDirectives.parse(null);
+
+        assertThat(directives.noStore()).isFalse();
+        assertThat(directives.requiresOrigin()).isFalse();
+        assertThat(directives.freshFor(Duration.ofSeconds(30))).isEqualTo(Duration.ofSeconds(30));
+        assertThat(CacheControlDirectives.parse(List.of())).isEqualTo(directives);
+    }
+
+    @Test
+    void parsesDirectivesCaseInsensitivelyAcrossHeaderValues() {
+        CacheControlDirectives directives = CacheControlDirectives.parse(
+            List.of("Public, MAX-AGE=60", " s-maxage=\"120\" ,stale-while-revalidate=30, private"));
+
+        assertThat(directives.isPrivate()).isTrue();
+        assertThat(directives.maxAge()).isEqualTo(Duration.ofSeconds(60));
+        assertThat(directives.sharedMaxAge()).isEqualTo(Duration.ofSeconds(120));
+        assertThat(directives.staleWhileRevalidate()).isEqualTo(Duration.ofSeconds(30));
+    }
+
+    @Test
+    void ignoresUnknownDirectivesAndMalformedValues() {
+        CacheControlDirectives directives = CacheControlDirectives.parse(List.of("immutable, max-age=soon, no-store"));
+
+        assertThat(directives.noStore()).isTrue();
+        assertThat(directives.maxAge()).isNull();
+    }
+
+    @Test
+    void noCacheOrZeroMaxAgeRequiresTheOrigin() {
+        assertThat(CacheControlDirectives.parse(List.of("no-cache")).requiresOrigin()).isTrue();
+        assertThat(CacheControlDirectives.parse(List.of("max-age=0")).requiresOrigin()).isTrue();
+        assertThat(CacheControlDirectives.parse(List.of("max-age=5")).requiresOrigin()).isFalse();
+    }
+
+    @Test
+    void sharedMaxAgeWinsOverMaxAgeWhichWinsOverTheFallback() {
+        Duration fallback = Duration.ofSeconds(10);
+
+        assertThat(CacheControlDirectives.parse(List.of("max-age=60, s-maxage=5")).freshFor(fallback))
+            .isEqualTo(Duration.ofSeconds(5));
+        assertThat(CacheControlDirectives.parse(List.of("max-age=60")).freshFor(fallback))
+            .isEqualTo(Duration.ofSeconds(60));
+        assertThat(CacheControlDirectives.parse(List.of("no-cache")).freshFor(fallback)).isEqualTo(fallback);
+    }
+}
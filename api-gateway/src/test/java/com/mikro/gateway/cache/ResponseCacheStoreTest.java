@@ -0,0 +1,62 @@
+package com.mikro.gateway.cache;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+
+import java.time.Duration;
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ResponseCacheStoreTest {
+    private final ResponseCacheStore store = new ResponseCacheStore(1 << 20, 1 << 16);
+
+    @Test
+    void stockChangeDropsTheItemButKeepsCollections() {
+        store.put("/api/v1/products/7", entry(7L), store.generation(7L));
+        store.put("/api/v1/products/8", entry(8L), store.generation(8L));
+        store.put("/api/v1/products?page=0", entry(null), store.generation(null));
+
+        store.invalidateProduct(7L, false);
+
+        assertThat(store.get("/api/v1/products/7")).isNull();
+        assertThat(store.get("/api/v1/products/8")).isNotNull();
+        assertThat(store.get("/api/v1/products?page=0")).isNotNull();
+    }
+
+    @Test
+    void catalogChangeAlsoDropsCollections() {
+        store.put("/api/v1/products?page=0", entry(null), store.generation(null));
+        store.put("/api/v1/products/search?q=mug", entry(null), store.generation(null));
+
+        store.invalidateProduct(7L, true);
+
+        assertThat(store.get("/api/v1/products?page=0")).isNull();
+        assertThat(store.get("/api/v1/products/search?q=mug")).isNull();
+    }
+
+    @Test
+    void responseFetchedAcrossAChangeIsNotStored() {
+        long before = store.generation(7L);
+        store.invalidateProduct(7L, false);
+
+        store.put("/api/v1/products/7", entry(7L), before);
+
+        assertThat(store.get("/api/v1/products/7")).isNull();
+    }
+
+    @Test
+    void changesToOtherProductsDoNotDiscardAFetch() {
+        long before = store.generation(7L);
+        store.invalidateProduct(8L, true);
+
+        store.put("/api/v1/products/7", entry(7L), before);
+
+        assertThat(store.get("/api/v1/products/7")).isNotNull();
+    }
+
+    private static CachedResponse entry(Long productId) {
+        return new CachedResponse(new HttpHeaders(), new byte[16], productId, null, new HttpHeaders(),
+            Instant.now(), Duration.ofMinutes(1), Duration.ofMinutes(1));
+    }
+}
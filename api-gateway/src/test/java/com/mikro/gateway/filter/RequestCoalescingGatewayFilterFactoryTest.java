@@ -0,0 +1,95 @@
+package com.mikro.gateway.filter;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RequestCoalescingGatewayFilterFactoryTest {
+    private final GatewayFilter filter = new RequestCoalescingGatewayFilterFactory()
+        .apply(new RequestCoalescingGatewayFilterFactory.Config());
+    private final AtomicInteger upstreamCalls = new AtomicInteger();
+    private final Sinks.Empty<Void> release = Sinks.empty();
+
+    @Test
+    void followerSharesTheLeadersOkResponse() throws Exception {
+        GatewayFilterChain chain = upstream(HttpStatus.OK);
+        MockServerWebExchange follower = exchange(MockServerHttpRequest.get("/api/v1/products/7"));
+
+        CompletableFuture<Void> leading = filter.filter(exchange(MockServerHttpRequest.get("/api/v1/products/7")), chain).toFuture();
+        CompletableFuture<Void> following = filter.filter(follower, chain).toFuture();
+        release.tryEmitEmpty();
+        leading.get(1, TimeUnit.SECONDS);
+        following.get(1, TimeUnit.SECONDS);
+
+        assertThat(upstreamCalls).hasValue(1);
+        assertThat(follower.getResponse().getHeaders().getFirst(RequestCoalescingGatewayFilterFactory.COALESCED_HEADER))
+            .isEqualTo("follower");
+        assertThat(follower.getResponse().getBodyAsString().block()).isEqualTo("{\"id\":7}");
+    }
+
+    @Test
+    void conditionalRequestsAreNotCoalesced() throws Exception {
+        GatewayFilterChain chain = upstream(HttpStatus.OK);
+        MockServerWebExchange conditional = exchange(MockServerHttpRequest.get("/api/v1/products/7")
+            .header(HttpHeaders.IF_NONE_MATCH, "\"7-1\""));
+        MockServerWebExchange sinceDate = exchange(MockServerHttpRequest.get("/api/v1/products/7")
+            .header(HttpHeaders.IF_MODIFIED_SINCE, "Sat, 17 Oct 2026 10:00:00 GMT"));
+
+        CompletableFuture<Void> leading = filter.filter(exchange(MockServerHttpRequest.get("/api/v1/products/7")), chain).toFuture();
+        filter.filter(conditional, chain).toFuture();
+        filter.filter(sinceDate, chain).toFuture();
+
+        assertThat(upstreamCalls).hasValue(3);
+        release.tryEmitEmpty();
+        leading.get(1, TimeUnit.SECONDS);
+        assertThat(conditional.getResponse().getHeaders().containsKey(RequestCoalescingGatewayFilterFactory.COALESCED_HEADER))
+            .isFalse();
+    }
+
+    @Test
+    void errorResponsesAreNotShared() throws Exception {
+        GatewayFilterChain chain = upstream(HttpStatus.SERVICE_UNAVAILABLE);
+        MockServerWebExchange follower = exchange(MockServerHttpRequest.get("/api/v1/products/7"));
+
+        CompletableFuture<Void> leading = filter.filter(exchange(MockServerHttpRequest.get("/api/v1/products/7")), chain).toFuture();
+        CompletableFuture<Void> following = filter.filter(follower, chain).toFuture();
+        release.tryEmitEmpty();
+        leading.get(1, TimeUnit.SECONDS);
+        following.get(1, TimeUnit.SECONDS);
+
+        assertThat(upstreamCalls).hasValue(2);
+        assertThat(follower.getResponse().getHeaders().containsKey(RequestCoalescingGatewayFilterFactory.COALESCED_HEADER))
+            .isFalse();
+    }
+
+    // Holds every call until release fires, so the first request stays in flight while the others arrive
+    private GatewayFilterChain upstream(HttpStatus status) {
+        return exchange -> {
+            upstreamCalls.incrementAndGet();
+            return release.asMono().then(Mono.defer(() -> {
+                ServerHttpResponse response = exchange.getResponse();
+                response.setStatusCode(status);
+                byte[] body = "{\"id\":7}".getBytes(StandardCharsets.UTF_8);
+                return response.writeWith(Mono.just(response.bufferFactory().wrap(body)));
+            }));
+        };
+    }
+
+    private static MockServerWebExchange exchange(MockServerHttpRequest.BaseBuilder<?> request) {
+        return MockServerWebExchange.from(request);
+    }
+}
@@ -0,0 +1,31 @@
+package com.mikro.gateway.filter;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ResponseCacheEtagMatchTest {
+
+    @Test
+    void matchesTheCachedEtagAmongSeveralCandidates() {
+        assertThat(ResponseCacheGatewayFilterFactory.etagMatches("\"7-1\", \"7-2\"", "\"7-2\"")).isTrue();
+        assertThat(ResponseCacheGatewayFilterFactory.etagMatches("\"7-1\"", "\"7-2\"")).isFalse();
+    }
+
+    @Test
+    void comparesWeakly() {
+        assertThat(ResponseCacheGatewayFilterFactory.etagMatches("W/\"7-2\"", "\"7-2\"")).isTrue();
+        assertThat(ResponseCacheGatewayFilterFactory.etagMatches("\"7-2\"", "W/\"7-2\"")).isTrue();
+    }
+
+    @Test
+    void wildcardMatchesAnyStoredEtag() {
+        assertThat(ResponseCacheGatewayFilterFactory.etagMatches("*", "\"7-2\"")).isTrue();
+    }
+
+    @Test
+    void missingHeaderOrEtagNeverMatches() {
+        assertThat(ResponseCacheGatewayFilterFactory.etagMatches(null, "\"7-2\"")).isFalse();
+        assertThat(ResponseCacheGatewayFilterFactory.etagMatches("*", null)).isFalse();
+    }
+}
@@ -0,0 +1,110 @@
+package com.mikro.gateway.ratelimit;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TokenBucketTest {
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    @Test
+    void startsFullAndRejectsOnceTheBurstIsSpent() {
+        TokenBucket bucket = new TokenBucket(3, 0);
+
+        assertThat(bucket.tryConsume(3, 1, 0).remaining()).isEqualTo(2);
+        assertThat(bucket.tryConsume(3, 1, 0).remaining()).isEqualTo(1);
+        assertThat(bucket.tryConsume(3, 1, 0).allowed()).isTrue();
+
+        TokenBucket.Probe rejected = bucket.tryConsume(3, 1, 0);
+        assertThat(rejected.allowed()).isFalse();
+        assertThat(rejected.remaining()).isZero();
+        assertThat(rejected.limit()).isEqualTo(3);
+    }
+
+    @Test
+    void refillsWithElapsedTime() {
+        TokenBucket bucket = new TokenBucket(10, 0);
+        for (int i = 0; i < 10; i++) {
+            bucket.tryConsume(10, 2, 0);
+        }
+
+        assertThat(bucket.tryConsume(10, 2, SECOND / 4).allowed()).isFalse();
+        // 2 tokens per second: one more after half a second in total
+        assertThat(bucket.tryConsume(10, 2, SECOND / 2).allowed()).isTrue();
+        assertThat(bucket.tryConsume(10, 2, SECOND / 2).allowed()).isFalse();
+    }
+
+    @Test
+    void neverRefillsPastCapacity() {
+        TokenBucket bucket = new TokenBucket(5, 0);
+        bucket.tryConsume(5, 1, 0);
+
+        TokenBucket.Probe probe = bucket.tryConsume(5, 1, 3600 * SECOND);
+
+        assertThat(probe.remaining()).isEqualTo(4);
+        assertThat(probe.resetSeconds()).isEqualTo(1);
+    }
+
+    @Test
+    void anOlderClockDoesNotRewindTheBucket() {
+        TokenBucket bucket = new TokenBucket(1, 0);
+        bucket.tryConsume(1, 1, 10 * SECOND);
+
+        assertThat(bucket.tryConsume(1, 1, 5 * SECOND).allowed()).isFalse();
+        assertThat(bucket.tryConsume(1, 1, 11 * SECOND).allowed()).isTrue();
+    }
+
+    @Test
+    void reportsRetryAfterAndReset() {
+        TokenBucket bucket = new TokenBucket(4, 0);
+        for (int i = 0; i < 4; i++) {
+            bucket.tryConsume(4, 0.5, 0);
+        }
+
+        TokenBucket.Probe rejected = bucket.tryConsume(4, 0.5, 0);
+
+        assertThat(rejected.retryAfterSeconds()).isEqualTo(2);
+        assertThat(rejected.resetSeconds()).isEqualTo(8);
+    }
+
+    @Test
+    void concurrentCallersNeverOverspend() throws Exception {
+        int threads = 8;
+        int attemptsPerThread = 1_000;
+        TokenBucket bucket = new TokenBucket(500, 0);
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<Integer>> results = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    int allowed = 0;
+                    for (int i = 0; i < attemptsPerThread; i++) {
+                        // Frozen clock: nothing refills, so exactly the capacity may pass
+                        if (bucket.tryConsume(500, 100, 0).allowed()) {
+                            allowed++;
+                        }
+                    }
+                    return allowed;
+                }));
+            }
+            start.countDown();
+            int total = 0;
+            for (Future<Integer> result : results) {
+                total += result.get(10, TimeUnit.SECONDS);
+            }
+            assertThat(total).isEqualTo(500);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
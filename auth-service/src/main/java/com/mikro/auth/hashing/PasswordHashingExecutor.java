@@ -0,0 +1,90 @@
+package com.mikro.auth.hashing;
+
+import com.mikro.auth.exception.TooManyRequestsException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+// BCrypt is CPU-bound: run it on a pool sized to the cores with a short bounded queue, so a login burst
+// cannot occupy every Tomcat thread, and shed load with 429 once the queue is full instead of queueing forever.
+@Component
+public class PasswordHashingExecutor {
+    private final PasswordEncoder passwordEncoder;
+    private final ThreadPoolExecutor pool;
+    // Work after the hash (DB writes, token signing) runs here so hashing threads only hash
+    private final ExecutorService continuations = Executors.newVirtualThreadPerTaskExecutor();
+    private final Timer waitTimer;
+    private final Timer matchTimer;
+    private final Timer encodeTimer;
+    private final Counter rejected;
+
+    public PasswordHashingExecutor(PasswordEncoder passwordEncoder,
+                                   MeterRegistry meterRegistry,
+                                   @Value("${auth.hashing.threads:0}") int threads,
+                                   @Value("${auth.hashing.queue-capacity:64}") int queueCapacity) {
+        this.passwordEncoder = passwordEncoder;
+        int size = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger sequence = new AtomicInteger();
+        this.pool = new ThreadPoolExecutor(size, size, 0L, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(queueCapacity),
+            task -> {
+                Thread thread = new Thread(task, "password-hashing-" + sequence.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            },
+            new ThreadPoolExecutor.AbortPolicy());
+
+        meterRegistry.gauge("auth.hashing.queue.depth", pool, p -> p.getQueue().size());
+        meterRegistry.gauge("auth.hashing.active", pool, ThreadPoolExecutor::getActiveCount);
+        this.waitTimer = Timer.builder("auth.hashing.wait").register(meterRegistry);
+        this.matchTimer = Timer.builder("auth.hashing.duration").tag("operation", "matches").register(meterRegistry);
+        this.encodeTimer = Timer.builder("auth.hashing.duration").tag("operation", "encode").register(meterRegistry);
+        this.rejected = meterRegistry.counter("auth.hashing.rejected");
+    }
+
+    public CompletableFuture<Boolean> matches(String rawPassword, String passwordHash) {
+        return submit(matchTimer, () -> passwordEncoder.matches(rawPassword, passwordHash));
+    }
+
+    public CompletableFuture<String> encode(String rawPassword) {
+        return submit(encodeTimer, () -> passwordEncoder.encode(rawPassword));
+    }
+
+    public Executor continuations() {
+        return continuations;
+    }
+
+    private <T> CompletableFuture<T> submit(Timer durationTimer, Supplier<T> hashing) {
+        long enqueuedAt = System.nanoTime();
+        try {
+            return CompletableFuture.supplyAsync(() -> {
+                waitTimer.record(System.nanoTime() - enqueuedAt, TimeUnit.NANOSECONDS);
+                return durationTimer.record(hashing);
+            }, pool);
+        } catch (RejectedExecutionException ex) {
+            rejected.increment();
+            throw new TooManyRequestsException("Authentication is busy, please retry shortly", 1);
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        pool.shutdown();
+        continuations.shutdown();
+    }
+}
@@ -1,6 +1,8 @@
 package com.mikro.auth.jwt;
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.security.Keys;
 import org.springframework.beans.factory.annotation.Value;
@@ -11,23 +13,36 @@ import java.security.Key;
 import java.time.Instant;
 import java.util.Date;
 import java.util.Map;
+import java.util.UUID;
 import javax.crypto.SecretKey;
 
 @Service
 public class JwtService {
+    public static final String REFRESH_TYPE = "refresh";
 
     private final SecretKey signingKey;
+    private final JwtParser parser;
+    // Refresh tokens get their own key, so no access-token verifier can ever accept one
+    private final SecretKey refreshSigningKey;
+    private final JwtParser refreshParser;
     private final String issuer;
     private final long accessTokenExpirationMinutes;
     private final long refreshTokenExpirationDays;
 
     public JwtService(
         @Value("${jwt.secret}") String secret,
+        @Value("${jwt.refresh-secret}") String refreshSecret,
         @Value("${jwt.issuer}") String issuer,
         @Value("${jwt.access-token-expiration-minutes:15}") long accessTokenExpirationMinutes,
         @Value("${jwt.refresh-token-expiration-days:7}") long refreshTokenExpirationDays
     ) {
+        if (refreshSecret.equals(secret)) {
+            throw new IllegalStateException("jwt.refresh-secret must differ from jwt.secret");
+        }
         this.signingKey = Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+        this.parser = Jwts.parser().verifyWith(signingKey).build();
+        this.refreshSigningKey = Keys.hmacShaKeyFor(refreshSecret.getBytes(StandardCharsets.UTF_8));
+        this.refreshParser = Jwts.parser().verifyWith(refreshSigningKey).build();
         this.issuer = issuer;
         this.accessTokenExpirationMinutes = accessTokenExpirationMinutes;
         this.refreshTokenExpirationDays = refreshTokenExpirationDays;
@@ -54,17 +69,48 @@ public class JwtService {
             .issuer(issuer)
             .issuedAt(Date.from(now))
             .expiration(Date.from(expiry))
-            .claim("type", "refresh")
-            .signWith(signingKey)
+            .claim("type", REFRESH_TYPE)
+            .signWith(refreshSigningKey)
+            .compact();
+    }
+
+    // Self-contained refresh token: jti for individual revocation, gen for revoking all of a user's tokens,
+    // role so a refresh can mint an access token without reading the user
+    public String generateRefreshToken(String subject, String role, int generation) {
+        Instant now = Instant.now();
+        Instant expiry = now.plusSeconds(refreshTokenExpirationDays * 24 * 60 * 60);
+        return Jwts.builder()
+            .id(UUID.randomUUID().toString())
+            .subject(subject)
+            .issuer(issuer)
+            .issuedAt(Date.from(now))
+            .expiration(Date.from(expiry))
+            .claim("type", REFRESH_TYPE)
+            .claim("role", role)
+            .claim("gen", generation)
+            .signWith(refreshSigningKey)
             .compact();
     }
 
+    // Access tokens only; refresh tokens signed with the shared key before the keys were split are refused too
     public Claims parseToken(String token) {
-        return Jwts.parser()
-            .verifyWith(signingKey)
-            .build()
-            .parseSignedClaims(token)
-            .getPayload();
+        Claims claims = parser.parseSignedClaims(token).getPayload();
+        if (REFRESH_TYPE.equals(claims.get("type"))) {
+            throw new JwtException("Refresh token used as an access token");
+        }
+        return claims;
+    }
+
+    public Claims parseRefreshToken(String token) {
+        Claims claims = refreshParser.parseSignedClaims(token).getPayload();
+        if (!REFRESH_TYPE.equals(claims.get("type"))) {
+            throw new JwtException("Not a refresh token");
+        }
+        return claims;
+    }
+
+    public long getRefreshTokenExpirationSeconds() {
+        return refreshTokenExpirationDays * 24 * 60 * 60;
     }
 
     public boolean isTokenExpired(String token) {
@@ -78,8 +124,8 @@ public class JwtService {
 
     public boolean isRefreshToken(String token) {
         try {
-            Claims claims = parseToken(token);
-            return "refresh".equals(claims.get("type"));
+            parseRefreshToken(token);
+            return true;
         } catch (Exception e) {
             return false;
         }
@@ -0,0 +1,55 @@
+package com.mikro.auth.ratelimit;
+
+import com.mikro.auth.exception.TooManyRequestsException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+// Admission control in front of password hashing: every attempt counts against the client IP,
+// only failed logins count against the username so nobody can lock a user out by guessing.
+@Component
+public class LoginRateLimiter {
+    private final SlidingWindowRateLimiter perIp;
+    private final SlidingWindowRateLimiter perUsername;
+    private final Counter ipLimited;
+    private final Counter usernameLimited;
+
+    public LoginRateLimiter(MeterRegistry meterRegistry,
+                            @Value("${auth.rate-limit.ip.max-attempts:60}") int ipMaxAttempts,
+                            @Value("${auth.rate-limit.username.max-failures:10}") int usernameMaxFailures,
+                            @Value("${auth.rate-limit.window-seconds:60}") long windowSeconds) {
+        Duration window = Duration.ofSeconds(windowSeconds);
+        this.perIp = new SlidingWindowRateLimiter(ipMaxAttempts, window);
+        this.perUsername = new SlidingWindowRateLimiter(usernameMaxFailures, window);
+        this.ipLimited = meterRegistry.counter("auth.rate_limited", "scope", "ip");
+        this.usernameLimited = meterRegistry.counter("auth.rate_limited", "scope", "username");
+    }
+
+    public void checkIp(String ip) {
+        if (!perIp.tryAcquire(ip)) {
+            ipLimited.increment();
+            throw new TooManyRequestsException("Too many attempts from this address", perIp.retryAfterSeconds());
+        }
+    }
+
+    public void checkUsername(String username) {
+        if (perUsername.isLimited(username)) {
+            usernameLimited.increment();
+            throw new TooManyRequestsException("Too many failed logins for this user", perUsername.retryAfterSeconds());
+        }
+    }
+
+    public void recordFailure(String username) {
+        perUsername.record(username);
+    }
+
+    @Scheduled(fixedDelay = 60000)
+    public void evictIdle() {
+        perIp.evictIdle();
+        perUsername.evictIdle();
+    }
+}
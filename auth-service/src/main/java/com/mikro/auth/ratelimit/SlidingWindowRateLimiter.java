@@ -0,0 +1,88 @@
+package com.mikro.auth.ratelimit;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Sliding-window counter per key: the previous fixed window's count is weighted by how much of it still
+// overlaps the sliding window. Two ints per key instead of a timestamp per request.
+public class SlidingWindowRateLimiter {
+    private final int limit;
+    private final long windowNanos;
+    private final Map<String, Window> windows = new ConcurrentHashMap<>();
+
+    public SlidingWindowRateLimiter(int limit, Duration window) {
+        this.limit = limit;
+        this.windowNanos = window.toNanos();
+    }
+
+    // Counts the attempt only if it is allowed
+    public boolean tryAcquire(String key) {
+        Window window = windows.computeIfAbsent(key, k -> new Window());
+        synchronized (window) {
+            long now = System.nanoTime();
+            window.roll(now, windowNanos);
+            if (window.estimate(now, windowNanos) >= limit) {
+                return false;
+            }
+            window.current++;
+            return true;
+        }
+    }
+
+    public boolean isLimited(String key) {
+        Window window = windows.get(key);
+        if (window == null) {
+            return false;
+        }
+        synchronized (window) {
+            long now = System.nanoTime();
+            window.roll(now, windowNanos);
+            return window.estimate(now, windowNanos) >= limit;
+        }
+    }
+
+    public void record(String key) {
+        Window window = windows.computeIfAbsent(key, k -> new Window());
+        synchronized (window) {
+            window.roll(System.nanoTime(), windowNanos);
+            window.current++;
+        }
+    }
+
+    // Seconds until the oldest counted attempts have slid out
+    public long retryAfterSeconds() {
+        return Math.max(1, Duration.ofNanos(windowNanos).toSeconds());
+    }
+
+    // Keys idle for two full windows carry no weight any more
+    public void evictIdle() {
+        long now = System.nanoTime();
+        windows.entrySet().removeIf(entry -> {
+            synchronized (entry.getValue()) {
+                return now - entry.getValue().start >= 2 * windowNanos;
+            }
+        });
+    }
+
+    private static final class Window {
+        private long start = System.nanoTime();
+        private int previous;
+        private int current;
+
+        void roll(long now, long windowNanos) {
+            long elapsedWindows = (now - start) / windowNanos;
+            if (elapsedWindows == 0) {
+                return;
+            }
+            previous = elapsedWindows == 1 ? current : 0;
+            current = 0;
+            start += elapsedWindows * windowNanos;
+        }
+
+        double estimate(long now, long windowNanos) {
+            double overlap = 1.0 - (double) (now - start) / windowNanos;
+            return previous * overlap + current;
+        }
+    }
+}
@@ -9,7 +9,7 @@ import lombok.NoArgsConstructor;
 import java.time.Instant;
 
 @Entity
-@Table(name = "refresh_tokens")
+@Table(name = "refresh_tokens", indexes = @Index(name = "idx_refresh_tokens_expiry_date", columnList = "expiryDate, id"))
 @Data
 @Builder
 @NoArgsConstructor
@@ -34,4 +34,7 @@ public class RefreshToken {
     
     @Column(nullable = false)
     private boolean revoked;
+
+    // When revoked; RefreshTokenPurgeJob removes revoked rows once this is older than the grace period
+    private Instant revokedAt;
 }
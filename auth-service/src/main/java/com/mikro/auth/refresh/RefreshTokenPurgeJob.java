@@ -0,0 +1,183 @@
+package com.mikro.auth.refresh;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+// Purges refresh_tokens a small chunk at a time, each chunk in its own short transaction with a pause
+// in between, instead of one hourly DELETE holding locks and writing a burst of WAL.
+// Expired rows go first, then revoked rows past the grace period. When refresh_tokens has been
+// range-partitioned by expiry (db-init/optional/partition-refresh-tokens.sql), whole expired
+// months are dropped as partitions instead.
+@Component
+public class RefreshTokenPurgeJob {
+    private static final Logger log = LoggerFactory.getLogger(RefreshTokenPurgeJob.class);
+    private static final int BACKLOG_CAP = 1_000_000;
+    private static final DateTimeFormatter PARTITION_SUFFIX = DateTimeFormatter.ofPattern("yyyyMM");
+
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final RevokedRefreshTokenRepository revokedRefreshTokenRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final int chunkSize;
+    private final long pauseMs;
+    private final int maxChunksPerRun;
+    private final Duration revokedGrace;
+    private final boolean partitioned;
+    private final Counter expiredPurged;
+    private final Counter revokedPurged;
+    private final Timer chunkTimer;
+    private final AtomicLong backlog = new AtomicLong();
+
+    public RefreshTokenPurgeJob(RefreshTokenRepository refreshTokenRepository,
+                                RevokedRefreshTokenRepository revokedRefreshTokenRepository,
+                                JdbcTemplate jdbcTemplate,
+                                PlatformTransactionManager transactionManager,
+                                MeterRegistry meterRegistry,
+                                @Value("${refresh-token.purge.chunk-size:500}") int chunkSize,
+                                @Value("${refresh-token.purge.pause-ms:50}") long pauseMs,
+                                @Value("${refresh-token.purge.max-chunks-per-run:200}") int maxChunksPerRun,
+                                @Value("${refresh-token.purge.revoked-grace-hours:24}") long revokedGraceHours,
+                                @Value("${refresh-token.purge.partitioned:false}") boolean partitioned) {
+        this.refreshTokenRepository = refreshTokenRepository;
+        this.revokedRefreshTokenRepository = revokedRefreshTokenRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.chunkSize = chunkSize;
+        this.pauseMs = pauseMs;
+        this.maxChunksPerRun = maxChunksPerRun;
+        this.revokedGrace = Duration.ofHours(revokedGraceHours);
+        this.partitioned = partitioned;
+        this.expiredPurged = meterRegistry.counter("auth.refresh_tokens.purged", "reason", "expired");
+        this.revokedPurged = meterRegistry.counter("auth.refresh_tokens.purged", "reason", "revoked");
+        this.chunkTimer = Timer.builder("auth.refresh_tokens.purge.chunk").register(meterRegistry);
+        meterRegistry.gauge("auth.refresh_tokens.purge.backlog", backlog);
+    }
+
+    @Scheduled(fixedDelayString = "${refresh-token.purge.interval-ms:300000}")
+    public void purge() {
+        Instant now = Instant.now();
+        try {
+            int chunks = 0;
+            if (partitioned) {
+                maintainPartitions(now);
+            } else {
+                chunks = purgeExpired(now, chunks);
+            }
+            purgeRevoked(now.minus(revokedGrace), chunks);
+            transactionTemplate.executeWithoutResult(status -> revokedRefreshTokenRepository.deleteExpired(now));
+            backlog.set(refreshTokenRepository.countExpiredUpTo(now, BACKLOG_CAP));
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException ex) {
+            log.warn("Refresh token purge failed: {}", ex.getMessage());
+        }
+    }
+
+    private int purgeExpired(Instant cutoff, int chunks) throws InterruptedException {
+        Instant afterExpiry = Instant.EPOCH;
+        long afterId = 0;
+        while (chunks < maxChunksPerRun) {
+            Instant from = afterExpiry;
+            long fromId = afterId;
+            List<Object[]> deleted = timedChunk(() -> refreshTokenRepository.deleteExpiredChunk(cutoff, from, fromId, chunkSize));
+            chunks++;
+            expiredPurged.increment(deleted.size());
+            if (deleted.size() < chunkSize) {
+                break;
+            }
+            Object[] last = lastKey(deleted);
+            afterExpiry = toInstant(last[0]);
+            afterId = ((Number) last[1]).longValue();
+            Thread.sleep(pauseMs);
+        }
+        return chunks;
+    }
+
+    private void purgeRevoked(Instant cutoff, int chunks) throws InterruptedException {
+        Instant afterRevokedAt = Instant.EPOCH;
+        long afterId = 0;
+        while (chunks < maxChunksPerRun) {
+            Instant from = afterRevokedAt;
+            long fromId = afterId;
+            List<Object[]> deleted = timedChunk(() -> refreshTokenRepository.deleteRevokedChunk(cutoff, from, fromId, chunkSize));
+            chunks++;
+            revokedPurged.increment(deleted.size());
+            if (deleted.size() < chunkSize) {
+                break;
+            }
+            Object[] last = lastKey(deleted);
+            afterRevokedAt = toInstant(last[0]);
+            afterId = ((Number) last[1]).longValue();
+            Thread.sleep(pauseMs);
+        }
+    }
+
+    private List<Object[]> timedChunk(Supplier<List<Object[]>> chunk) {
+        return chunkTimer.record(() -> transactionTemplate.execute(status -> chunk.get()));
+    }
+
+    // RETURNING order is not guaranteed, so take the greatest (time, id) key of the chunk
+    private static Object[] lastKey(List<Object[]> rows) {
+        Object[] last = rows.get(0);
+        for (Object[] row : rows) {
+            int byTime = toInstant(row[0]).compareTo(toInstant(last[0]));
+            if (byTime > 0 || (byTime == 0 && ((Number) row[1]).longValue() > ((Number) last[1]).longValue())) {
+                last = row;
+            }
+        }
+        return last;
+    }
+
+    private static Instant toInstant(Object value) {
+        if (value instanceof Instant instant) {
+            return instant;
+        }
+        if (value instanceof OffsetDateTime offsetDateTime) {
+            return offsetDateTime.toInstant();
+        }
+        return ((Timestamp) value).toInstant();
+    }
+
+    // Monthly partitions refresh_tokens_pYYYYMM: keep the next two months created, drop months that fully expired
+    private void maintainPartitions(Instant now) {
+        YearMonth current = YearMonth.from(now.atOffset(ZoneOffset.UTC));
+        for (int ahead = 0; ahead <= 2; ahead++) {
+            YearMonth month = current.plusMonths(ahead);
+            jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS refresh_tokens_p" + month.format(PARTITION_SUFFIX)
+                + " PARTITION OF refresh_tokens FOR VALUES FROM ('" + month.atDay(1) + "') TO ('"
+                + month.plusMonths(1).atDay(1) + "')");
+        }
+
+        List<String> partitions = jdbcTemplate.queryForList(
+            "SELECT c.relname FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid "
+                + "WHERE i.inhparent = 'refresh_tokens'::regclass AND c.relname ~ '^refresh_tokens_p[0-9]{6}$'",
+            String.class);
+        for (String partition : partitions) {
+            YearMonth month = YearMonth.parse(partition.substring("refresh_tokens_p".length()), PARTITION_SUFFIX);
+            if (month.isBefore(current)) {
+                jdbcTemplate.execute("DROP TABLE IF EXISTS " + partition);
+                log.info("Dropped expired refresh token partition {}", partition);
+            }
+        }
+    }
+}
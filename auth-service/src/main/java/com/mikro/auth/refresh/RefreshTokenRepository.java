@@ -7,6 +7,7 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.Instant;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -19,10 +20,37 @@ public interface RefreshTokenRepository extends JpaRepository<RefreshToken, Long
     void deleteByUsername(@Param("username") String username);
     
     @Modifying
-    @Query("DELETE FROM RefreshToken rt WHERE rt.expiryDate < :now")
-    void deleteExpiredTokens(@Param("now") Instant now);
-    
-    @Modifying
-    @Query("UPDATE RefreshToken rt SET rt.revoked = true WHERE rt.username = :username")
-    void revokeByUsername(@Param("username") String username);
+    @Query("UPDATE RefreshToken rt SET rt.revoked = true, rt.revokedAt = :now WHERE rt.username = :username AND rt.revoked = false")
+    void revokeByUsername(@Param("username") String username, @Param("now") Instant now);
+
+    // One purge chunk: the next expired rows after the (expiry_date, id) keyset position, oldest first.
+    // Returns the deleted keys so the caller can continue after the last one without rescanning dead index entries.
+    @Query(value = "WITH doomed AS ("
+                 + "  SELECT id FROM refresh_tokens"
+                 + "  WHERE expiry_date < :cutoff AND (expiry_date, id) > (:afterExpiry, :afterId)"
+                 + "  ORDER BY expiry_date, id LIMIT :chunk"
+                 + ") DELETE FROM refresh_tokens rt USING doomed WHERE rt.id = doomed.id "
+                 + "RETURNING rt.expiry_date, rt.id",
+           nativeQuery = true)
+    List<Object[]> deleteExpiredChunk(@Param("cutoff") Instant cutoff,
+                                      @Param("afterExpiry") Instant afterExpiry,
+                                      @Param("afterId") long afterId,
+                                      @Param("chunk") int chunk);
+
+    @Query(value = "WITH doomed AS ("
+                 + "  SELECT id FROM refresh_tokens"
+                 + "  WHERE revoked AND revoked_at < :cutoff AND (revoked_at, id) > (:afterRevokedAt, :afterId)"
+                 + "  ORDER BY revoked_at, id LIMIT :chunk"
+                 + ") DELETE FROM refresh_tokens rt USING doomed WHERE rt.id = doomed.id "
+                 + "RETURNING rt.revoked_at, rt.id",
+           nativeQuery = true)
+    List<Object[]> deleteRevokedChunk(@Param("cutoff") Instant cutoff,
+                                      @Param("afterRevokedAt") Instant afterRevokedAt,
+                                      @Param("afterId") long afterId,
+                                      @Param("chunk") int chunk);
+
+    // Expired rows still waiting to be purged, counted only up to cap
+    @Query(value = "SELECT count(*) FROM (SELECT 1 FROM refresh_tokens WHERE expiry_date < :cutoff LIMIT :cap) backlog",
+           nativeQuery = true)
+    long countExpiredUpTo(@Param("cutoff") Instant cutoff, @Param("cap") int cap);
 }
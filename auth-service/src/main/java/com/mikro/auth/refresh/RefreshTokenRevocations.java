@@ -0,0 +1,120 @@
+package com.mikro.auth.refresh;
+
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+// In-memory view of revoked_refresh_tokens so refresh checks never touch the database.
+// Rebuilt at startup, then tailed by revokedAt to pick up revocations made on other instances;
+// an expiry-ordered index drops entries once the tokens they cover have expired on their own.
+@Component
+public class RefreshTokenRevocations {
+    private static final Logger log = LoggerFactory.getLogger(RefreshTokenRevocations.class);
+    // Re-reads a little history each sync so rows committed late, or stamped by a skewed clock, are not missed
+    private static final Duration SYNC_OVERLAP = Duration.ofSeconds(60);
+
+    private final RevokedRefreshTokenRepository repository;
+    private final Map<UUID, Instant> revokedJtis = new ConcurrentHashMap<>();
+    private final Map<String, Generation> minGenerations = new ConcurrentHashMap<>();
+    private final ConcurrentSkipListSet<Expiring> byExpiry = new ConcurrentSkipListSet<>();
+    private volatile Instant lastSync = Instant.EPOCH;
+
+    public RefreshTokenRevocations(RevokedRefreshTokenRepository repository) {
+        this.repository = repository;
+    }
+
+    @PostConstruct
+    void rebuild() {
+        lastSync = Instant.now();
+        List<RevokedRefreshToken> live = repository.findByExpiresAtAfterOrderByIdAsc(Instant.now());
+        live.forEach(this::remember);
+        log.info("Loaded {} live refresh token revocations", live.size());
+    }
+
+    public boolean isRevoked(UUID jti, String username, int generation) {
+        if (revokedJtis.containsKey(jti)) {
+            return true;
+        }
+        Generation min = minGenerations.get(username);
+        return min != null && generation < min.value();
+    }
+
+    public void revoke(UUID jti, String username, Instant expiresAt) {
+        remember(repository.save(RevokedRefreshToken.builder()
+            .jti(jti)
+            .username(username)
+            .expiresAt(expiresAt)
+            .revokedAt(Instant.now())
+            .build()));
+    }
+
+    // Every token of the user issued below minGeneration; kept until the newest of them could expire
+    public void revokeBelow(String username, int minGeneration, Instant expiresAt) {
+        remember(repository.save(RevokedRefreshToken.builder()
+            .username(username)
+            .minGeneration(minGeneration)
+            .expiresAt(expiresAt)
+            .revokedAt(Instant.now())
+            .build()));
+    }
+
+    @Scheduled(fixedDelayString = "${jwt.revocation.sync-interval-ms:5000}")
+    public void sync() {
+        Instant now = Instant.now();
+        repository.findByRevokedAtAfter(lastSync.minus(SYNC_OVERLAP)).forEach(this::remember);
+        lastSync = now;
+        evictExpired(now);
+    }
+
+    // Idempotent, so rows seen again through the sync overlap are harmless
+    private void remember(RevokedRefreshToken row) {
+        if (!row.getExpiresAt().isAfter(Instant.now())) {
+            return;
+        }
+        if (row.getJti() != null) {
+            revokedJtis.put(row.getJti(), row.getExpiresAt());
+            byExpiry.add(new Expiring(row.getExpiresAt(), row.getId(), row.getJti(), null));
+        } else if (row.getMinGeneration() != null) {
+            minGenerations.merge(row.getUsername(), new Generation(row.getMinGeneration(), row.getExpiresAt()),
+                (current, candidate) -> candidate.value() >= current.value() ? candidate : current);
+            byExpiry.add(new Expiring(row.getExpiresAt(), row.getId(), null, row.getUsername()));
+        }
+    }
+
+    private void evictExpired(Instant now) {
+        Expiring head;
+        while ((head = byExpiry.pollFirst()) != null) {
+            if (head.expiresAt().isAfter(now)) {
+                byExpiry.add(head);
+                return;
+            }
+            if (head.jti() != null) {
+                revokedJtis.remove(head.jti());
+            } else {
+                // Only drop the user's floor if no newer revoke-all replaced it
+                minGenerations.computeIfPresent(head.username(),
+                    (username, generation) -> generation.expiresAt().isAfter(now) ? generation : null);
+            }
+        }
+    }
+
+    private record Generation(int value, Instant expiresAt) {}
+
+    private record Expiring(Instant expiresAt, long id, UUID jti, String username) implements Comparable<Expiring> {
+        @Override
+        public int compareTo(Expiring other) {
+            int byTime = expiresAt.compareTo(other.expiresAt);
+            return byTime != 0 ? byTime : Long.compare(id, other.id);
+        }
+    }
+}
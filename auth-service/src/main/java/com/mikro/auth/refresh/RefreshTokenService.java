@@ -3,10 +3,12 @@ package com.mikro.auth.refresh;
 import com.mikro.auth.jwt.JwtService;
 import com.mikro.auth.user.User;
 import com.mikro.auth.user.UserRepository;
+import io.jsonwebtoken.Claims;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.Instant;
 import java.util.Map;
@@ -14,29 +16,47 @@ import java.util.Optional;
 import java.util.UUID;
 
 @Service
-@Transactional
 public class RefreshTokenService {
     
     private final RefreshTokenRepository refreshTokenRepository;
+    private final RefreshTokenRevocations revocations;
     private final UserRepository userRepository;
     private final JwtService jwtService;
+    private final TransactionTemplate transactionTemplate;
     private final long refreshTokenExpirationDays;
+    private final boolean stateless;
     
     public RefreshTokenService(
             RefreshTokenRepository refreshTokenRepository,
+            RefreshTokenRevocations revocations,
             UserRepository userRepository,
             JwtService jwtService,
-            @Value("${jwt.refresh-token-expiration-days:7}") long refreshTokenExpirationDays
+            PlatformTransactionManager transactionManager,
+            @Value("${jwt.refresh-token-expiration-days:7}") long refreshTokenExpirationDays,
+            @Value("${jwt.refresh-token-mode:stateless}") String refreshTokenMode
     ) {
         this.refreshTokenRepository = refreshTokenRepository;
+        this.revocations = revocations;
         this.userRepository = userRepository;
         this.jwtService = jwtService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
         this.refreshTokenExpirationDays = refreshTokenExpirationDays;
+        this.stateless = !"database".equalsIgnoreCase(refreshTokenMode);
+    }
+
+    // Stateless mode signs a refresh JWT without touching the database; database mode keeps the old rows
+    public String issueRefreshToken(User user) {
+        if (stateless) {
+            return jwtService.generateRefreshToken(user.getUsername(), user.getRole(), user.getTokenGeneration());
+        }
+        // Called on this instance, so the @Transactional proxy of createRefreshToken would be bypassed
+        return transactionTemplate.execute(status -> createRefreshToken(user.getUsername()).getToken());
     }
     
+    @Transactional
     public RefreshToken createRefreshToken(String username) {
         // Revoke existing tokens for this user
-        refreshTokenRepository.revokeByUsername(username);
+        refreshTokenRepository.revokeByUsername(username, Instant.now());
         
         RefreshToken refreshToken = RefreshToken.builder()
                 .token(UUID.randomUUID().toString())
@@ -49,10 +69,12 @@ public class RefreshTokenService {
         return refreshTokenRepository.save(refreshToken);
     }
     
+    @Transactional(readOnly = true)
     public Optional<RefreshToken> findByToken(String token) {
         return refreshTokenRepository.findByToken(token);
     }
     
+    @Transactional
     public RefreshToken verifyExpiration(RefreshToken token) {
         if (token.getExpiryDate().compareTo(Instant.now()) < 0) {
             refreshTokenRepository.delete(token);
@@ -61,19 +83,40 @@ public class RefreshTokenService {
         return token;
     }
     
+    @Transactional
     public void revokeToken(String token) {
+        if (isSignedToken(token)) {
+            // Nothing to revoke if the token is already invalid
+            Claims claims;
+            try {
+                claims = parseRefreshClaims(token);
+            } catch (RuntimeException ex) {
+                return;
+            }
+            revocations.revoke(UUID.fromString(claims.getId()), claims.getSubject(), claims.getExpiration().toInstant());
+            return;
+        }
         refreshTokenRepository.findByToken(token)
                 .ifPresent(refreshToken -> {
                     refreshToken.setRevoked(true);
+                    refreshToken.setRevokedAt(Instant.now());
                     refreshTokenRepository.save(refreshToken);
                 });
     }
     
+    @Transactional
     public void revokeAllTokensForUser(String username) {
-        refreshTokenRepository.revokeByUsername(username);
+        refreshTokenRepository.revokeByUsername(username, Instant.now());
+        userRepository.incrementTokenGeneration(username).ifPresent(generation ->
+            revocations.revokeBelow(username, generation,
+                Instant.now().plusSeconds(jwtService.getRefreshTokenExpirationSeconds())));
     }
     
     public Map<String, String> refreshAccessToken(String refreshToken) {
+        if (isSignedToken(refreshToken)) {
+            return refreshStateless(refreshToken);
+        }
+
         RefreshToken token = findByToken(refreshToken)
                 .orElseThrow(() -> new RuntimeException("Refresh token not found"));
         
@@ -93,9 +136,37 @@ public class RefreshTokenService {
                 "token_type", "Bearer"
         );
     }
-    
-    @Scheduled(fixedRate = 3600000) // Run every hour
-    public void cleanupExpiredTokens() {
-        refreshTokenRepository.deleteExpiredTokens(Instant.now());
+
+    // Signature, expiry and revocation are all checked in memory; no database round trip
+    private Map<String, String> refreshStateless(String refreshToken) {
+        Claims claims = parseRefreshClaims(refreshToken);
+        UUID jti = UUID.fromString(claims.getId());
+        int generation = claims.get("gen", Integer.class);
+        if (revocations.isRevoked(jti, claims.getSubject(), generation)) {
+            throw new RuntimeException("Refresh token was revoked");
+        }
+
+        String newAccessToken = jwtService.generateAccessToken(
+                claims.getSubject(),
+                Map.of("role", claims.get("role", String.class))
+        );
+
+        return Map.of(
+                "access_token", newAccessToken,
+                "token_type", "Bearer"
+        );
+    }
+
+    private Claims parseRefreshClaims(String token) {
+        Claims claims = jwtService.parseRefreshToken(token);
+        if (claims.getId() == null || claims.get("gen") == null) {
+            throw new RuntimeException("Not a refresh token");
+        }
+        return claims;
+    }
+
+    // Legacy database tokens are plain UUIDs; signed ones are JWTs
+    private static boolean isSignedToken(String token) {
+        return token != null && token.indexOf('.') >= 0;
     }
 }
@@ -0,0 +1,41 @@
+package com.mikro.auth.refresh;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.UUID;
+
+// Revocations of stateless refresh tokens: either one token (jti) or every token of a user issued
+// below minGeneration. Rows only matter until expiresAt, after which the tokens they cover are dead anyway.
+@Entity
+@Table(name = "revoked_refresh_tokens", indexes = {
+    @Index(name = "idx_revoked_refresh_tokens_expires_at", columnList = "expiresAt"),
+    @Index(name = "idx_revoked_refresh_tokens_revoked_at", columnList = "revokedAt")
+})
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RevokedRefreshToken {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    private UUID jti;
+
+    @Column(nullable = false)
+    private String username;
+
+    private Integer minGeneration;
+
+    @Column(nullable = false)
+    private Instant expiresAt;
+
+    @Column(nullable = false)
+    private Instant revokedAt;
+}
@@ -0,0 +1,23 @@
+package com.mikro.auth.refresh;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.List;
+
+@Repository
+public interface RevokedRefreshTokenRepository extends JpaRepository<RevokedRefreshToken, Long> {
+
+    List<RevokedRefreshToken> findByExpiresAtAfterOrderByIdAsc(Instant now);
+
+    // Revocations written by other instances since the last sync
+    List<RevokedRefreshToken> findByRevokedAtAfter(Instant since);
+
+    @Modifying
+    @Query("DELETE FROM RevokedRefreshToken r WHERE r.expiresAt < :now")
+    int deleteExpired(@Param("now") Instant now);
+}
@@ -25,6 +25,10 @@ public class User {
 
     @Column(nullable = false)
     private String role; // e.g. ROLE_USER, ROLE_ADMIN
+
+    // Refresh tokens carry the generation they were issued under; bumping it revokes all of them
+    @Column(name = "token_generation", nullable = false, columnDefinition = "integer default 0")
+    private int tokenGeneration;
 }
 
 
@@ -1,12 +1,19 @@
 package com.mikro.auth.user;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.util.Optional;
 
 public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByUsername(String username);
     boolean existsByUsername(String username);
+
+    @Query(value = "UPDATE users SET token_generation = token_generation + 1 WHERE username = :username "
+                 + "RETURNING token_generation",
+           nativeQuery = true)
+    Optional<Integer> incrementTokenGeneration(@Param("username") String username);
 }
 
 
@@ -1,38 +1,44 @@
 package com.mikro.auth.web;
 
 import com.mikro.auth.exception.UserAlreadyExistsException;
+import com.mikro.auth.hashing.PasswordHashingExecutor;
 import com.mikro.auth.jwt.JwtService;
-import com.mikro.auth.refresh.RefreshToken;
+import com.mikro.auth.ratelimit.LoginRateLimiter;
 import com.mikro.auth.refresh.RefreshTokenService;
 import com.mikro.auth.user.User;
 import com.mikro.auth.user.UserRepository;
+import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.BadCredentialsException;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 @RequestMapping("/api/v1/auth")
 public class AuthController implements AuthControllerApi {
 
     private final UserRepository userRepository;
-    private final PasswordEncoder passwordEncoder;
+    private final PasswordHashingExecutor passwordHashing;
+    private final LoginRateLimiter rateLimiter;
     private final JwtService jwtService;
     private final RefreshTokenService refreshTokenService;
 
-    public AuthController(UserRepository userRepository, PasswordEncoder passwordEncoder, 
-                         JwtService jwtService, RefreshTokenService refreshTokenService) {
+    public AuthController(UserRepository userRepository, PasswordHashingExecutor passwordHashing,
+                         LoginRateLimiter rateLimiter, JwtService jwtService,
+                         RefreshTokenService refreshTokenService) {
         this.userRepository = userRepository;
-        this.passwordEncoder = passwordEncoder;
+        this.passwordHashing = passwordHashing;
+        this.rateLimiter = rateLimiter;
         this.jwtService = jwtService;
         this.refreshTokenService = refreshTokenService;
     }
 
     @Override
-    public ResponseEntity<?> register(RegisterRequest req) {
+    public CompletableFuture<ResponseEntity<?>> register(RegisterRequest req, HttpServletRequest request) {
+        rateLimiter.checkIp(request.getRemoteAddr());
         if (userRepository.existsByUsername(req.username())) {
             throw new UserAlreadyExistsException("Username '" + req.username() + "' is already taken");
         }
@@ -40,13 +46,16 @@ public class AuthController implements AuthControllerApi {
         // Role belirleme stratejisi
         String userRole = determineUserRole(req.username(), req.role());
         
-        User user = User.builder()
-            .username(req.username())
-            .passwordHash(passwordEncoder.encode(req.password()))
-            .role(userRole)
-            .build();
-        userRepository.save(user);
-        return ResponseEntity.ok(Map.of("status", "registered", "role", userRole));
+        // The request thread is released while BCrypt runs on the hashing pool
+        return passwordHashing.encode(req.password()).<ResponseEntity<?>>thenApplyAsync(passwordHash -> {
+            User user = User.builder()
+                .username(req.username())
+                .passwordHash(passwordHash)
+                .role(userRole)
+                .build();
+            userRepository.save(user);
+            return ResponseEntity.ok(Map.of("status", "registered", "role", userRole));
+        }, passwordHashing.continuations());
     }
     
     private String determineUserRole(String username, String requestedRole) {
@@ -75,20 +84,32 @@ public class AuthController implements AuthControllerApi {
     }
 
     @Override
-    public ResponseEntity<?> login(LoginRequest req) {
+    public CompletableFuture<ResponseEntity<?>> login(LoginRequest req, HttpServletRequest request) {
+        // Cheap checks first so rejected attempts never reach the hashing pool
+        rateLimiter.checkIp(request.getRemoteAddr());
+        rateLimiter.checkUsername(req.username());
+
         User user = userRepository.findByUsername(req.username()).orElse(null);
-        if (user == null || !passwordEncoder.matches(req.password(), user.getPasswordHash())) {
+        if (user == null) {
+            rateLimiter.recordFailure(req.username());
             throw new BadCredentialsException("Invalid username or password");
         }
-        
-        String accessToken = jwtService.generateAccessToken(user.getUsername(), Map.of("role", user.getRole()));
-        RefreshToken refreshToken = refreshTokenService.createRefreshToken(user.getUsername());
-        
-        return ResponseEntity.ok(Map.of(
-                "access_token", accessToken,
-                "refresh_token", refreshToken.getToken(),
-                "token_type", "Bearer"
-        ));
+
+        return passwordHashing.matches(req.password(), user.getPasswordHash()).<ResponseEntity<?>>thenApplyAsync(matches -> {
+            if (!matches) {
+                rateLimiter.recordFailure(req.username());
+                throw new BadCredentialsException("Invalid username or password");
+            }
+
+            String accessToken = jwtService.generateAccessToken(user.getUsername(), Map.of("role", user.getRole()));
+            String refreshToken = refreshTokenService.issueRefreshToken(user);
+
+            return ResponseEntity.ok(Map.of(
+                    "access_token", accessToken,
+                    "refresh_token", refreshToken,
+                    "token_type", "Bearer"
+            ));
+        }, passwordHashing.continuations());
     }
 
     @Override
@@ -1,19 +1,21 @@
 package com.mikro.auth.web;
 
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotBlank;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 public interface AuthControllerApi {
 
     @PostMapping("/register")
-    ResponseEntity<?> register(@Valid @RequestBody RegisterRequest req);
+    CompletableFuture<ResponseEntity<?>> register(@Valid @RequestBody RegisterRequest req, HttpServletRequest request);
 
     @PostMapping("/login")
-    ResponseEntity<?> login(@Valid @RequestBody LoginRequest req);
+    CompletableFuture<ResponseEntity<?>> login(@Valid @RequestBody LoginRequest req, HttpServletRequest request);
 
     @GetMapping("/me")
     ResponseEntity<?> me(@RequestHeader(value = "Authorization", required = false) String authorization);
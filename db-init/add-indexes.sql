@@ -4,6 +4,9 @@
 \c auth_db;
 CREATE INDEX IF NOT EXISTS idx_users_username ON users(username);
 CREATE INDEX IF NOT EXISTS idx_users_role ON users(role);
+-- Chunked refresh token purge walks these in key order
+CREATE INDEX IF NOT EXISTS idx_refresh_tokens_expiry_date ON refresh_tokens(expiry_date, id);
+CREATE INDEX IF NOT EXISTS idx_refresh_tokens_revoked_at ON refresh_tokens(revoked_at, id) WHERE revoked;
 
 -- Product DB Indexes  
 \c product_db;
@@ -11,6 +14,9 @@ CREATE INDEX IF NOT EXISTS idx_products_owner ON products(owner_username);
 CREATE INDEX IF NOT EXISTS idx_products_name ON products(name);
 CREATE INDEX IF NOT EXISTS idx_products_price ON products(price);
 CREATE INDEX IF NOT EXISTS idx_products_stock ON products(stock);
+-- Keyset scrolling seeks on (sort key, id); see ProductRepository.scrollBy*
+CREATE INDEX IF NOT EXISTS idx_products_price_id ON products(price, id);
+CREATE INDEX IF NOT EXISTS idx_products_name_id ON products(name, id);
 CREATE INDEX IF NOT EXISTS idx_products_name_search ON products USING gin(to_tsvector('english', name));
 
 -- Order DB Indexes
@@ -19,6 +25,9 @@ CREATE INDEX IF NOT EXISTS idx_orders_customer ON orders(customer_username);
 CREATE INDEX IF NOT EXISTS idx_orders_status ON orders(status);
 CREATE INDEX IF NOT EXISTS idx_orders_total_amount ON orders(total_amount);
 CREATE INDEX IF NOT EXISTS idx_orders_customer_status ON orders(customer_username, status);
+-- Order history keyset pages, newest first, with and without a status filter
+CREATE INDEX IF NOT EXISTS idx_orders_customer_created ON orders(customer_username, created_at DESC, id DESC);
+CREATE INDEX IF NOT EXISTS idx_orders_customer_status_created ON orders(customer_username, status, created_at DESC, id DESC);
 
 CREATE INDEX IF NOT EXISTS idx_order_items_order_id ON order_items(order_id);
 CREATE INDEX IF NOT EXISTS idx_order_items_product_id ON order_items(product_id);
@@ -0,0 +1,58 @@
+-- Optional: range-partition refresh_tokens by expiry_date so expired tokens are dropped a month at a time.
+-- Not run by docker-entrypoint-initdb.d (subdirectories are ignored). Apply manually during a quiet window,
+-- then set refresh-token.purge.partitioned=true; RefreshTokenPurgeJob then creates upcoming monthly
+-- partitions and drops fully expired ones instead of deleting rows.
+--
+-- The unique constraint on token has to include the partition key, so it becomes (token, expiry_date).
+-- Hibernate's ddl-auto=update will log a failed attempt to add UNIQUE(token); that is expected.
+
+\c auth_db;
+
+BEGIN;
+
+LOCK TABLE refresh_tokens IN ACCESS EXCLUSIVE MODE;
+
+ALTER TABLE refresh_tokens RENAME TO refresh_tokens_unpartitioned;
+
+CREATE TABLE refresh_tokens (
+    id          bigint      GENERATED BY DEFAULT AS IDENTITY,
+    token       varchar(255) NOT NULL,
+    username    varchar(255) NOT NULL,
+    expiry_date timestamp(6) with time zone NOT NULL,
+    created_at  timestamp(6) with time zone NOT NULL,
+    revoked     boolean     NOT NULL,
+    revoked_at  timestamp(6) with time zone,
+    PRIMARY KEY (id, expiry_date),
+    UNIQUE (token, expiry_date)
+) PARTITION BY RANGE (expiry_date);
+
+DO $$
+DECLARE
+    month date := date_trunc('month', now());
+BEGIN
+    FOR i IN 0..2 LOOP
+        EXECUTE format('CREATE TABLE refresh_tokens_p%s PARTITION OF refresh_tokens FOR VALUES FROM (%L) TO (%L)',
+                       to_char(month, 'YYYYMM'), month, month + interval '1 month');
+        month := month + interval '1 month';
+    END LOOP;
+END $$;
+
+-- Anything further out than the pre-created months
+CREATE TABLE refresh_tokens_future PARTITION OF refresh_tokens DEFAULT;
+
+-- Rows that expired before this month are dead already and are not carried over
+INSERT INTO refresh_tokens (id, token, username, expiry_date, created_at, revoked, revoked_at)
+SELECT id, token, username, expiry_date, created_at, revoked, revoked_at
+FROM refresh_tokens_unpartitioned
+WHERE expiry_date >= date_trunc('month', now());
+
+SELECT setval(pg_get_serial_sequence('refresh_tokens', 'id'),
+              (SELECT coalesce(max(id), 0) + 1 FROM refresh_tokens_unpartitioned), false);
+
+DROP TABLE refresh_tokens_unpartitioned;
+
+CREATE INDEX idx_refresh_tokens_expiry_date ON refresh_tokens (expiry_date, id);
+CREATE INDEX idx_refresh_tokens_revoked_at ON refresh_tokens (revoked_at, id) WHERE revoked;
+CREATE INDEX idx_refresh_tokens_token ON refresh_tokens (token);
+
+COMMIT;
@@ -1,13 +1,30 @@
 package com.mikro.order.amqp;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.amqp.core.AnonymousQueue;
 import org.springframework.amqp.core.Binding;
+import org.springframework.amqp.core.BatchMessageListener;
 import org.springframework.amqp.core.BindingBuilder;
+import org.springframework.amqp.core.Declarable;
+import org.springframework.amqp.core.Declarables;
 import org.springframework.amqp.core.Queue;
 import org.springframework.amqp.core.TopicExchange;
+import org.springframework.amqp.rabbit.config.SimpleRabbitListenerContainerFactory;
+import org.springframework.amqp.rabbit.connection.ConnectionFactory;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.amqp.support.converter.MessageConverter;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.amqp.SimpleRabbitListenerContainerFactoryConfigurer;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.cloud.client.discovery.DiscoveryClient;
+import org.springframework.cloud.client.serviceregistry.Registration;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+import java.util.ArrayList;
+import java.util.List;
+
 @Configuration
 public class AmqpConfig {
     @Bean
@@ -30,6 +47,86 @@ public class AmqpConfig {
                                   @Value("${amqp.routingKey}") String routingKey) {
         return BindingBuilder.bind(paymentRequestQueue).to(paymentExchange).with(routingKey);
     }
-}
 
+    // Opt-in partitioned topology (amqp.partitions.count > 0): one request and one result queue per partition
+    @Bean
+    public Declarables paymentPartitionQueues(PaymentPartitions partitions, TopicExchange paymentExchange) {
+        List<Declarable> declarables = new ArrayList<>();
+        for (int partition = 0; partition < partitions.count(); partition++) {
+            Queue requests = new Queue(partitions.requestQueue(partition), true);
+            declarables.add(requests);
+            declarables.add(BindingBuilder.bind(requests).to(paymentExchange).with(partitions.requestRoutingKey(partition)));
+            declarables.add(new Queue(partitions.resultQueue(partition), true));
+        }
+        return new Declarables(declarables);
+    }
+
+    @Bean
+    public TopicExchange productExchange(@Value("${amqp.productExchange}") String exchange) {
+        return new TopicExchange(exchange, true, false);
+    }
+
+    // One auto-delete queue per instance so every near-cache sees every product change
+    @Bean
+    public AnonymousQueue productEventsQueue() {
+        return new AnonymousQueue();
+    }
+
+    @Bean
+    public Binding productEventsBinding(TopicExchange productExchange, AnonymousQueue productEventsQueue,
+                                        @Value("${amqp.productChangedRoutingKey}") String routingKey) {
+        return BindingBuilder.bind(productEventsQueue).to(productExchange).with(routingKey);
+    }
+
+    // Payment results are applied in batches: a batch is released at batch-size messages, or once no further
+    // message arrives within receive-timeout-ms, and acked only after PaymentResultListener's transaction commits
+    @Bean
+    public SimpleRabbitListenerContainerFactory paymentResultBatchContainerFactory(
+            SimpleRabbitListenerContainerFactoryConfigurer configurer,
+            ConnectionFactory connectionFactory,
+            @Value("${order.payment-results.batch-size:500}") int batchSize,
+            @Value("${order.payment-results.receive-timeout-ms:50}") long receiveTimeoutMs) {
+        SimpleRabbitListenerContainerFactory factory = new SimpleRabbitListenerContainerFactory();
+        configurer.configure(factory, connectionFactory);
+        factory.setBatchListener(true);
+        factory.setConsumerBatchEnabled(true);
+        factory.setBatchSize(batchSize);
+        factory.setReceiveTimeout(receiveTimeoutMs);
+        factory.setPrefetchCount(batchSize);
+        return factory;
+    }
+
+    // Retry tiers and a DLQ behind every payment result queue this service consumes, partitions included
+    @Bean
+    public Declarables paymentResultRetryQueues(RetryTopology retryTopology, PaymentPartitions partitions) {
+        List<Declarable> declarables = new ArrayList<>();
+        for (String queue : partitions.resultQueues()) {
+            declarables.addAll(retryTopology.declarablesFor(queue));
+        }
+        return new Declarables(declarables);
+    }
 
+    @Bean
+    public DeadLetterEndpoint deadLetterEndpoint(RabbitTemplate rabbitTemplate, TieredRetryRecoverer recoverer,
+                                                 RetryTopology retryTopology, MeterRegistry meterRegistry,
+                                                 PaymentPartitions partitions) {
+        return new DeadLetterEndpoint(rabbitTemplate, recoverer, retryTopology, meterRegistry, partitions.resultQueues());
+    }
+
+    // Consumes the result partitions this instance owns in batches; replaces the single-queue PaymentResultListener container
+    @Bean
+    @ConditionalOnExpression("${amqp.partitions.count:0} > 0")
+    public PartitionAssignment paymentResultPartitions(PaymentPartitions partitions,
+                                                       @Qualifier("paymentResultBatchContainerFactory")
+                                                       SimpleRabbitListenerContainerFactory containerFactory,
+                                                       PaymentResultListener paymentResultListener,
+                                                       MessageConverter messageConverter,
+                                                       DiscoveryClient discoveryClient,
+                                                       Registration registration) {
+        BatchMessageListener listener = messages -> paymentResultListener.onPaymentResults(messages.stream()
+            .map(message -> (PaymentEvents.PaymentResult) messageConverter.fromMessage(message))
+            .toList());
+        return new PartitionAssignment(partitions.count(), partitions::resultQueue, containerFactory,
+            listener, discoveryClient, registration.getServiceId(), registration.getInstanceId());
+    }
+}
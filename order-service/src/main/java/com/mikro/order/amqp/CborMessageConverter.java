@@ -0,0 +1,15 @@
+package com.mikro.order.amqp;
+
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import org.springframework.amqp.support.converter.AbstractJackson2MessageConverter;
+import org.springframework.util.MimeType;
+
+// Same Jackson model as the JSON converter, encoded as CBOR: field names stay but numbers, strings and
+// structure are binary, so messages are smaller and cheaper to parse
+public class CborMessageConverter extends AbstractJackson2MessageConverter {
+    public static final String CONTENT_TYPE = "application/cbor";
+
+    public CborMessageConverter() {
+        super(CBORMapper.builder().findAndAddModules().build(), MimeType.valueOf(CONTENT_TYPE));
+    }
+}
@@ -0,0 +1,124 @@
+package com.mikro.order.amqp;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.core.MessageListener;
+import org.springframework.amqp.rabbit.config.SimpleRabbitListenerContainerFactory;
+import org.springframework.amqp.rabbit.listener.SimpleMessageListenerContainer;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.discovery.DiscoveryClient;
+import org.springframework.cloud.client.discovery.event.HeartbeatEvent;
+import org.springframework.context.event.EventListener;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.IntFunction;
+
+// Spreads partition queues over the instances of this service registered in Eureka with rendezvous hashing:
+// every instance scores (instance, partition) pairs the same way and consumes the partitions it scores highest
+// for, so a join or leave only moves the partitions of that instance. Each partition has one exclusive consumer;
+// during a handover the new owner's consumer keeps retrying until the old owner has released the queue.
+public class PartitionAssignment {
+    private static final Logger log = LoggerFactory.getLogger(PartitionAssignment.class);
+
+    private final int partitionCount;
+    private final IntFunction<String> queueForPartition;
+    private final SimpleRabbitListenerContainerFactory containerFactory;
+    private final MessageListener listener;
+    private final DiscoveryClient discoveryClient;
+    private final String serviceId;
+    private final String instanceId;
+    private final Map<Integer, SimpleMessageListenerContainer> containers = new HashMap<>();
+
+    public PartitionAssignment(int partitionCount,
+                               IntFunction<String> queueForPartition,
+                               SimpleRabbitListenerContainerFactory containerFactory,
+                               MessageListener listener,
+                               DiscoveryClient discoveryClient,
+                               String serviceId,
+                               String instanceId) {
+        this.partitionCount = partitionCount;
+        this.queueForPartition = queueForPartition;
+        this.containerFactory = containerFactory;
+        this.listener = listener;
+        this.discoveryClient = discoveryClient;
+        this.serviceId = serviceId;
+        this.instanceId = instanceId;
+    }
+
+    // Eureka publishes a HeartbeatEvent after every registry refresh
+    @EventListener({ApplicationReadyEvent.class, HeartbeatEvent.class})
+    public synchronized void rebalance() {
+        Set<String> members = new TreeSet<>();
+        members.add(instanceId);
+        for (ServiceInstance instance : discoveryClient.getInstances(serviceId)) {
+            members.add(instance.getInstanceId());
+        }
+
+        Set<Integer> target = new TreeSet<>();
+        for (int partition = 0; partition < partitionCount; partition++) {
+            if (instanceId.equals(owner(members, partition))) {
+                target.add(partition);
+            }
+        }
+        if (target.equals(containers.keySet())) {
+            return;
+        }
+
+        // Release first so other owners can attach while this instance picks up its new partitions
+        containers.keySet().removeIf(partition -> {
+            if (target.contains(partition)) {
+                return false;
+            }
+            containers.get(partition).destroy();
+            return true;
+        });
+        for (Integer partition : target) {
+            containers.computeIfAbsent(partition, this::startContainer);
+        }
+        log.info("Owning partitions {} of {} across {} instances", target, partitionCount, members.size());
+    }
+
+    private SimpleMessageListenerContainer startContainer(int partition) {
+        SimpleMessageListenerContainer container = containerFactory.createListenerContainer();
+        container.setQueueNames(queueForPartition.apply(partition));
+        // One consumer per partition keeps messages for an order in order
+        container.setConcurrentConsumers(1);
+        container.setMaxConcurrentConsumers(1);
+        container.setExclusive(true);
+        container.setMessageListener(listener);
+        container.start();
+        return container;
+    }
+
+    static String owner(Set<String> members, int partition) {
+        String best = null;
+        long bestScore = Long.MIN_VALUE;
+        for (String member : members) {
+            long score = score(member, partition);
+            if (best == null || score > bestScore) {
+                best = member;
+                bestScore = score;
+            }
+        }
+        return best;
+    }
+
+    // SplitMix64 finalizer over (instance, partition); String.hashCode is the same on every JVM
+    private static long score(String member, int partition) {
+        long z = ((long) member.hashCode() << 32) ^ partition ^ 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    @PreDestroy
+    public synchronized void stop() {
+        containers.values().forEach(SimpleMessageListenerContainer::destroy);
+        containers.clear();
+    }
+}
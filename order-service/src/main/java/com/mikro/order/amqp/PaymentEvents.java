@@ -4,7 +4,12 @@ import java.math.BigDecimal;
 
 public class PaymentEvents {
     public record PaymentRequest(Long orderId, BigDecimal amount) {}
-    public record PaymentResult(Long orderId, String status) {}
+    // version is null on results from payment-service builds that predate it; treat those as the first version
+    public record PaymentResult(Long orderId, String status, Long version) {
+        public long versionOrFirst() {
+            return version != null ? version : 1L;
+        }
+    }
 }
 
 
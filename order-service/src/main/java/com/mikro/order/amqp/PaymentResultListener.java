@@ -1,9 +1,15 @@
 package com.mikro.order.amqp;
 
-import com.mikro.order.domain.Order;
 import com.mikro.order.domain.OrderRepository;
 import org.springframework.amqp.rabbit.annotation.RabbitListener;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 
 @Component
 public class PaymentResultListener {
@@ -13,13 +19,31 @@ public class PaymentResultListener {
         this.orderRepository = orderRepository;
     }
 
-    @RabbitListener(queues = "${amqp.resultQueue}")
-    public void onPaymentResult(PaymentEvents.PaymentResult result) {
-        orderRepository.findById(result.orderId()).ifPresent(order -> {
-            order.setStatus("PAID".equalsIgnoreCase(result.status()) ? "PAID" : "FAILED");
-            orderRepository.save(order);
-        });
-    }
-}
+    // One version-guarded UPDATE per (status, version) in the batch, usually just PAID/1 and FAILED/1;
+    // the container acks the batch after this commits
+    @Transactional
+    // Idle when the partitioned topology is on; PartitionAssignment then feeds this method per owned partition
+    @RabbitListener(queues = "${amqp.resultQueue}", containerFactory = "paymentResultBatchContainerFactory",
+                    autoStartup = "#{${amqp.partitions.count:0} <= 0}")
+    public void onPaymentResults(List<PaymentEvents.PaymentResult> results) {
+        // Highest version per order wins within the batch; on a tie the first one seen
+        Map<Long, PaymentEvents.PaymentResult> latestByOrder = new LinkedHashMap<>();
+        for (PaymentEvents.PaymentResult result : results) {
+            latestByOrder.merge(result.orderId(), result,
+                (current, candidate) -> candidate.versionOrFirst() > current.versionOrFirst() ? candidate : current);
+        }
 
+        Map<Outcome, List<Long>> ordersByOutcome = new LinkedHashMap<>();
+        for (PaymentEvents.PaymentResult result : latestByOrder.values()) {
+            String status = "PAID".equalsIgnoreCase(result.status()) ? "PAID" : "FAILED";
+            ordersByOutcome.computeIfAbsent(new Outcome(status, result.versionOrFirst()), k -> new ArrayList<>())
+                .add(result.orderId());
+        }
 
+        Instant now = Instant.now();
+        ordersByOutcome.forEach((outcome, orderIds) ->
+            orderRepository.completePayment(orderIds, outcome.status(), outcome.version(), now));
+    }
+
+    private record Outcome(String status, long version) {}
+}
@@ -0,0 +1,19 @@
+package com.mikro.order.amqp;
+
+import com.mikro.order.product.ProductNearCache;
+import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.stereotype.Component;
+
+@Component
+public class ProductChangedListener {
+    private final ProductNearCache nearCache;
+
+    public ProductChangedListener(ProductNearCache nearCache) {
+        this.nearCache = nearCache;
+    }
+
+    @RabbitListener(queues = "#{productEventsQueue.name}")
+    public void onProductChanged(ProductEvents.ProductChanged event) {
+        nearCache.invalidate(event.productId());
+    }
+}
@@ -0,0 +1,5 @@
+package com.mikro.order.amqp;
+
+public class ProductEvents {
+    public record ProductChanged(Long productId, String type) {}
+}
@@ -8,6 +8,8 @@ import org.springframework.cloud.circuitbreaker.resilience4j.Resilience4JCircuit
 import org.springframework.cloud.circuitbreaker.resilience4j.Resilience4JConfigBuilder;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.core.task.support.ExecutorServiceAdapter;
 
 import java.time.Duration;
 
@@ -34,6 +36,12 @@ public class CircuitBreakerConfig {
                 .circuitBreakerConfig(circuitBreakerConfig)
                 .build());
 
+        // The time limiter runs calls on this executor; propagate the Authorization header onto it
+        SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("product-cb-");
+        executor.setVirtualThreads(true);
+        executor.setTaskDecorator(ForwardedAuthorization::wrap);
+        factory.configureExecutorService(new ExecutorServiceAdapter(executor));
+
         return factory;
     }
 }
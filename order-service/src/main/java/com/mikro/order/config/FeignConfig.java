@@ -3,27 +3,21 @@ package com.mikro.order.config;
 import feign.RequestInterceptor;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.web.context.request.RequestAttributes;
-import org.springframework.web.context.request.RequestContextHolder;
-import org.springframework.web.context.request.ServletRequestAttributes;
-
-import jakarta.servlet.http.HttpServletRequest;
 
 @Configuration
 public class FeignConfig {
     @Bean
     public RequestInterceptor authForwardingInterceptor() {
         return template -> {
-            RequestAttributes attrs = RequestContextHolder.getRequestAttributes();
-            if (attrs instanceof ServletRequestAttributes sra) {
-                HttpServletRequest req = sra.getRequest();
-                String auth = req.getHeader("Authorization");
-                if (auth != null && !auth.isBlank()) {
-                    template.header("Authorization", auth);
-                }
+            String auth = ForwardedAuthorization.current();
+            if (auth != null && !auth.isBlank()) {
+                template.header("Authorization", auth);
+            }
+            // Lets product-service skip re-verifying the JWT the gateway already checked
+            String identity = ForwardedAuthorization.currentIdentity();
+            if (identity != null && !identity.isBlank()) {
+                template.header(IdentityHeaderVerifier.HEADER, identity);
             }
         };
     }
 }
-
-
@@ -0,0 +1,76 @@
+package com.mikro.order.config;
+
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.util.concurrent.Callable;
+
+// Carries the caller's Authorization and gateway identity headers to threads other than the servlet request thread
+// (fanned-out product lookups, the circuit breaker's executor)
+public final class ForwardedAuthorization {
+    private static final ThreadLocal<Headers> CURRENT = new ThreadLocal<>();
+
+    private ForwardedAuthorization() {}
+
+    public static String current() {
+        return headers().authorization();
+    }
+
+    public static String currentIdentity() {
+        return headers().identity();
+    }
+
+    private static Headers headers() {
+        Headers headers = CURRENT.get();
+        if (headers != null) {
+            return headers;
+        }
+        RequestAttributes attrs = RequestContextHolder.getRequestAttributes();
+        if (attrs instanceof ServletRequestAttributes sra) {
+            return new Headers(
+                sra.getRequest().getHeader("Authorization"),
+                sra.getRequest().getHeader(IdentityHeaderVerifier.HEADER)
+            );
+        }
+        return Headers.NONE;
+    }
+
+    public static Runnable wrap(Runnable task) {
+        Headers headers = headers();
+        return () -> {
+            Headers previous = CURRENT.get();
+            CURRENT.set(headers);
+            try {
+                task.run();
+            } finally {
+                restore(previous);
+            }
+        };
+    }
+
+    public static <T> Callable<T> wrap(Callable<T> task) {
+        Headers headers = headers();
+        return () -> {
+            Headers previous = CURRENT.get();
+            CURRENT.set(headers);
+            try {
+                return task.call();
+            } finally {
+                restore(previous);
+            }
+        };
+    }
+
+    private static void restore(Headers previous) {
+        if (previous == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(previous);
+        }
+    }
+
+    private record Headers(String authorization, String identity) {
+        static final Headers NONE = new Headers(null, null);
+    }
+}
@@ -0,0 +1,69 @@
+package com.mikro.order.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.List;
+import java.util.Optional;
+
+// Checks the identity the api-gateway forwards after verifying the bearer token:
+//   base64url(subject) "." base64url(role) "." exp-epoch-seconds "." base64url(HMAC-SHA256 of the first three parts)
+// One HMAC over a few dozen bytes, instead of parsing and verifying the whole JWT again.
+@Component
+public class IdentityHeaderVerifier {
+    public static final String HEADER = "X-Auth-Identity";
+
+    private final SecretKeySpec key;
+
+    public IdentityHeaderVerifier(@Value("${identity.secret}") String secret) {
+        this.key = new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), "HmacSHA256");
+    }
+
+    // Empty for anything not signed by the gateway or already expired
+    public Optional<JwtVerifier.VerifiedToken> verify(String header) {
+        int signatureStart = header.lastIndexOf('.');
+        if (signatureStart < 0) {
+            return Optional.empty();
+        }
+        String payload = header.substring(0, signatureStart);
+        String[] parts = payload.split("\\.");
+        if (parts.length != 3) {
+            return Optional.empty();
+        }
+        try {
+            byte[] expected = mac(payload);
+            byte[] actual = Base64.getUrlDecoder().decode(header.substring(signatureStart + 1));
+            if (!MessageDigest.isEqual(expected, actual)) {
+                return Optional.empty();
+            }
+            Instant expiresAt = Instant.ofEpochSecond(Long.parseLong(parts[2]));
+            if (!expiresAt.isAfter(Instant.now())) {
+                return Optional.empty();
+            }
+            Base64.Decoder decoder = Base64.getUrlDecoder();
+            String subject = new String(decoder.decode(parts[0]), StandardCharsets.UTF_8);
+            String role = new String(decoder.decode(parts[1]), StandardCharsets.UTF_8);
+            return Optional.of(new JwtVerifier.VerifiedToken(subject, List.of(new SimpleGrantedAuthority(role)), expiresAt));
+        } catch (IllegalArgumentException ex) {
+            return Optional.empty();
+        }
+    }
+
+    private byte[] mac(String payload) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(key);
+            return mac.doFinal(payload.getBytes(StandardCharsets.UTF_8));
+        } catch (GeneralSecurityException ex) {
+            throw new IllegalStateException("HmacSHA256 not available", ex);
+        }
+    }
+}
@@ -2,8 +2,11 @@ package com.mikro.order.domain;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.UpdateTimestamp;
 
 import java.math.BigDecimal;
+import java.time.Instant;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -29,6 +32,20 @@ public class Order {
     private BigDecimal totalAmount;
     private String status; // CREATED, PAID, FAILED
 
+    // Version of the payment result behind status; results not newer than this are ignored
+    @Column(name = "payment_version", nullable = false, columnDefinition = "bigint default 0")
+    private long paymentVersion;
+
+    // Existing rows are backfilled by the column default when the column is added
+    @CreationTimestamp
+    @Column(name = "created_at", nullable = false, updatable = false,
+            columnDefinition = "timestamp(6) with time zone default now()")
+    private Instant createdAt;
+
+    @UpdateTimestamp
+    @Column(name = "updated_at")
+    private Instant updatedAt;
+
     public void addItem(OrderItem item) {
         items.add(item);
         item.setOrder(this);
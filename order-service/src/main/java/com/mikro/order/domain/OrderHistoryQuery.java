@@ -0,0 +1,7 @@
+package com.mikro.order.domain;
+
+import java.time.Instant;
+
+// Filters for one page of a customer's order history; afterCreatedAt/afterId is the keyset position (null for the first page)
+public record OrderHistoryQuery(String customerUsername, String status, Instant from, Instant to,
+                                Instant afterCreatedAt, Long afterId) {}
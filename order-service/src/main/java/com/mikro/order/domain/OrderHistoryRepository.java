@@ -0,0 +1,8 @@
+package com.mikro.order.domain;
+
+import java.util.List;
+
+public interface OrderHistoryRepository {
+    // Ids of the next page, newest first; only the filters that are set end up in the query
+    List<Long> findHistoryPageIds(OrderHistoryQuery query, int limit);
+}
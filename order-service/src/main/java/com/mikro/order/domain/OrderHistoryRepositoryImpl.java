@@ -0,0 +1,49 @@
+package com.mikro.order.domain;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+
+import java.util.List;
+
+class OrderHistoryRepositoryImpl implements OrderHistoryRepository {
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<Long> findHistoryPageIds(OrderHistoryQuery query, int limit) {
+        // Seeks on (customer_username[, status], created_at, id) so every page is an index range scan
+        StringBuilder jpql = new StringBuilder("SELECT o.id FROM Order o WHERE o.customerUsername = :customer");
+        if (query.status() != null) {
+            jpql.append(" AND o.status = :status");
+        }
+        if (query.from() != null) {
+            jpql.append(" AND o.createdAt >= :from");
+        }
+        if (query.to() != null) {
+            jpql.append(" AND o.createdAt < :to");
+        }
+        if (query.afterCreatedAt() != null) {
+            jpql.append(" AND (o.createdAt, o.id) < (:afterCreatedAt, :afterId)");
+        }
+        jpql.append(" ORDER BY o.createdAt DESC, o.id DESC");
+
+        TypedQuery<Long> typed = entityManager.createQuery(jpql.toString(), Long.class)
+            .setParameter("customer", query.customerUsername())
+            .setMaxResults(limit);
+        if (query.status() != null) {
+            typed.setParameter("status", query.status());
+        }
+        if (query.from() != null) {
+            typed.setParameter("from", query.from());
+        }
+        if (query.to() != null) {
+            typed.setParameter("to", query.to());
+        }
+        if (query.afterCreatedAt() != null) {
+            typed.setParameter("afterCreatedAt", query.afterCreatedAt());
+            typed.setParameter("afterId", query.afterId());
+        }
+        return typed.getResultList();
+    }
+}
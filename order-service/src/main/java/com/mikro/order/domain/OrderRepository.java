@@ -1,20 +1,38 @@
 package com.mikro.order.domain;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
+import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
-public interface OrderRepository extends JpaRepository<Order, Long> {
+public interface OrderRepository extends JpaRepository<Order, Long>, OrderHistoryRepository {
     List<Order> findByCustomerUsername(String customerUsername);
+
+    // Items come back in the same query instead of one lazy load per order
+    @Query("SELECT DISTINCT o FROM Order o LEFT JOIN FETCH o.items WHERE o.customerUsername = :customerUsername ORDER BY o.id")
+    List<Order> findByCustomerUsernameWithItems(@Param("customerUsername") String customerUsername);
+
+    // Second step of a history page: load the page's orders and all their items in one query
+    @Query("SELECT DISTINCT o FROM Order o LEFT JOIN FETCH o.items WHERE o.id IN :ids")
+    List<Order> findAllWithItemsByIdIn(@Param("ids") Collection<Long> ids);
     
     @Query("SELECT o FROM Order o LEFT JOIN FETCH o.items WHERE o.id = :id")
     Optional<Order> findByIdWithItems(@Param("id") Long id);
     
     @Query("SELECT o FROM Order o LEFT JOIN FETCH o.items WHERE o.id = :id AND o.customerUsername = :customerUsername")
     Optional<Order> findByIdAndCustomerUsernameWithItems(@Param("id") Long id, @Param("customerUsername") String customerUsername);
-}
-
 
+    // Only strictly newer payment results change the status, so duplicates and stale redeliveries are no-ops.
+    // Rows still at version 0 predate versioned results and only leave CREATED; terminal ones stay as they are.
+    @Modifying
+    @Query("UPDATE Order o SET o.status = :status, o.paymentVersion = :version, o.updatedAt = :now "
+         + "WHERE o.id IN :ids AND o.paymentVersion < :version "
+         + "AND (o.status = 'CREATED' OR o.paymentVersion > 0)")
+    int completePayment(@Param("ids") Collection<Long> ids, @Param("status") String status,
+                        @Param("version") long version, @Param("now") Instant now);
+}
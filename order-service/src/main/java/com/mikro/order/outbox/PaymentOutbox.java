@@ -0,0 +1,31 @@
+package com.mikro.order.outbox;
+
+import com.mikro.order.domain.Order;
+import com.mikro.order.domain.OrderRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+
+@Service
+public class PaymentOutbox {
+    private final OrderRepository orderRepository;
+    private final PaymentOutboxRepository outboxRepository;
+
+    public PaymentOutbox(OrderRepository orderRepository, PaymentOutboxRepository outboxRepository) {
+        this.orderRepository = orderRepository;
+        this.outboxRepository = outboxRepository;
+    }
+
+    // The order and its payment request commit together; PaymentOutboxRelay publishes the request later
+    @Transactional
+    public Order saveOrderAndEnqueuePayment(Order order) {
+        Order saved = orderRepository.save(order);
+        outboxRepository.save(PaymentOutboxMessage.builder()
+            .orderId(saved.getId())
+            .amount(saved.getTotalAmount())
+            .createdAt(Instant.now())
+            .build());
+        return saved;
+    }
+}
@@ -0,0 +1,133 @@
+package com.mikro.order.outbox;
+
+import com.mikro.order.amqp.PaymentEvents;
+import com.mikro.order.amqp.PaymentPartitions;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.rabbit.connection.CorrelationData;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+@Component
+public class PaymentOutboxRelay {
+    private static final Logger log = LoggerFactory.getLogger(PaymentOutboxRelay.class);
+
+    private final PaymentOutboxRepository outboxRepository;
+    private final RabbitTemplate rabbitTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final PaymentPartitions partitions;
+    private final String exchange;
+    private final int batchSize;
+    private final Duration confirmTimeout;
+
+    private final AtomicLong lagMillis = new AtomicLong();
+    private final Counter published;
+    private final Counter failed;
+    private final Timer confirmTimer;
+
+    public PaymentOutboxRelay(PaymentOutboxRepository outboxRepository,
+                              RabbitTemplate rabbitTemplate,
+                              TransactionTemplate transactionTemplate,
+                              MeterRegistry meterRegistry,
+                              PaymentPartitions partitions,
+                              @Value("${amqp.exchange}") String exchange,
+                              @Value("${outbox.relay.batch-size:200}") int batchSize,
+                              @Value("${outbox.relay.confirm-timeout-ms:5000}") long confirmTimeoutMs) {
+        this.outboxRepository = outboxRepository;
+        this.rabbitTemplate = rabbitTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.partitions = partitions;
+        this.exchange = exchange;
+        this.batchSize = batchSize;
+        this.confirmTimeout = Duration.ofMillis(confirmTimeoutMs);
+
+        Gauge.builder("payment.outbox.depth", outboxRepository, PaymentOutboxRepository::count)
+            .description("Payment requests waiting in the outbox")
+            .register(meterRegistry);
+        TimeGauge.builder("payment.outbox.relay.lag", lagMillis, TimeUnit.MILLISECONDS, AtomicLong::get)
+            .description("Age of the oldest outbox message seen by the last relay pass")
+            .register(meterRegistry);
+        this.published = Counter.builder("payment.outbox.published").register(meterRegistry);
+        this.failed = Counter.builder("payment.outbox.failed").register(meterRegistry);
+        this.confirmTimer = Timer.builder("payment.outbox.relay.confirm")
+            .description("Time from publishing a batch until all publisher confirms arrived")
+            .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${outbox.relay.interval-ms:200}")
+    public void relay() {
+        try {
+            Integer relayed;
+            do {
+                relayed = transactionTemplate.execute(status -> relayBatch());
+            } while (relayed != null && relayed == batchSize);
+        } catch (Exception ex) {
+            // Rows stay in the outbox and are retried on the next pass
+            log.warn("Payment outbox relay failed: {}", ex.getMessage());
+        }
+    }
+
+    private int relayBatch() {
+        List<PaymentOutboxMessage> batch = outboxRepository.lockNextBatch(batchSize);
+        if (batch.isEmpty()) {
+            lagMillis.set(0);
+            return 0;
+        }
+        lagMillis.set(Duration.between(batch.get(0).getCreatedAt(), Instant.now()).toMillis());
+
+        long start = System.nanoTime();
+        List<CorrelationData> confirms = new ArrayList<>(batch.size());
+        for (PaymentOutboxMessage message : batch) {
+            CorrelationData correlation = new CorrelationData(String.valueOf(message.getId()));
+            rabbitTemplate.convertAndSend(exchange, partitions.requestRoutingKey(message.getOrderId()),
+                new PaymentEvents.PaymentRequest(message.getOrderId(), message.getAmount()), correlation);
+            confirms.add(correlation);
+        }
+
+        List<Long> acked = new ArrayList<>(batch.size());
+        long deadline = start + confirmTimeout.toNanos();
+        for (int i = 0; i < batch.size(); i++) {
+            CorrelationData correlation = confirms.get(i);
+            try {
+                long remaining = Math.max(0, deadline - System.nanoTime());
+                boolean ack = correlation.getFuture().get(remaining, TimeUnit.NANOSECONDS).isAck();
+                // Publishes are mandatory: an unroutable message (e.g. amqp.partitions.count differs between
+                // services) is returned before its ack, and must stay in the outbox instead of being deleted
+                if (ack && correlation.getReturned() == null) {
+                    acked.add(batch.get(i).getId());
+                } else if (correlation.getReturned() != null) {
+                    log.warn("Payment request for order {} was returned unroutable: {}",
+                        batch.get(i).getOrderId(), correlation.getReturned().getReplyText());
+                }
+            } catch (TimeoutException | ExecutionException ex) {
+                // Unconfirmed rows are published again on a later pass
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        confirmTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+
+        outboxRepository.deleteAllByIdInBatch(acked);
+        published.increment(acked.size());
+        failed.increment(batch.size() - acked.size());
+        return acked.size();
+    }
+}
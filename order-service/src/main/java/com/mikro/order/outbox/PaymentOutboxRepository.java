@@ -0,0 +1,14 @@
+package com.mikro.order.outbox;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+
+public interface PaymentOutboxRepository extends JpaRepository<PaymentOutboxMessage, Long> {
+
+    // SKIP LOCKED lets several order-service instances relay the same table without double-publishing
+    @Query(value = "SELECT * FROM payment_outbox ORDER BY id LIMIT :limit FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<PaymentOutboxMessage> lockNextBatch(@Param("limit") int limit);
+}
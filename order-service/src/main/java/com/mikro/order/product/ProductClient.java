@@ -1,49 +1,109 @@
 package com.mikro.order.product;
 
+import feign.FeignException;
+import feign.RetryableException;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.cloud.circuitbreaker.resilience4j.Resilience4JCircuitBreakerFactory;
 import org.springframework.cloud.openfeign.FeignClient;
 import org.springframework.stereotype.Component;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeoutException;
+
 @Component
 public class ProductClient {
-    
+    private static final Logger log = LoggerFactory.getLogger(ProductClient.class);
+
     private final ProductClientFeign productClientFeign;
     private final Resilience4JCircuitBreakerFactory circuitBreakerFactory;
+    private final ProductNearCache nearCache;
     
     public ProductClient(ProductClientFeign productClientFeign, 
-                        Resilience4JCircuitBreakerFactory circuitBreakerFactory) {
+                        Resilience4JCircuitBreakerFactory circuitBreakerFactory,
+                        ProductNearCache nearCache) {
         this.productClientFeign = productClientFeign;
         this.circuitBreakerFactory = circuitBreakerFactory;
+        this.nearCache = nearCache;
     }
     
     public ProductResponse getProduct(Long id) {
+        ProductResponse cached = nearCache.getFresh(id);
+        if (cached != null) {
+            return cached;
+        }
         return circuitBreakerFactory.create("product-service")
-                .run(() -> productClientFeign.getProduct(id),
+                .run(() -> {
+                         ProductResponse product = productClientFeign.getProduct(id);
+                         nearCache.put(id, product);
+                         return product;
+                     },
                      throwable -> {
-                         // Fallback response when circuit breaker is open
-                         return ProductResponse.builder()
-                                 .id(id)
-                                 .name("Product temporarily unavailable")
-                                 .price(0.0)
-                                 .stock(0)
-                                 .build();
+                         if (!isUnavailable(throwable)) {
+                             // A 404 or other rejection is product-service's answer; never cover it with a stale copy
+                             if (throwable instanceof FeignException.NotFound) {
+                                 nearCache.invalidate(id);
+                             }
+                             if (throwable instanceof RuntimeException runtime) {
+                                 throw runtime;
+                             }
+                             throw new ProductLookupException("Product " + id + " lookup failed: " + throwable.getMessage(), throwable);
+                         }
+                         // Fall back to the last known good entry; never invent a price
+                         return nearCache.getStale(id)
+                             .orElseThrow(() -> new ProductLookupException(
+                                 "Product " + id + " unavailable: " + throwable.getMessage(), throwable));
                      });
     }
+
+    // Open breaker, time limit, I/O failure (Feign reports those as retryable) or a 5xx
+    static boolean isUnavailable(Throwable throwable) {
+        return throwable instanceof CallNotPermittedException
+            || throwable instanceof TimeoutException
+            || throwable instanceof RetryableException
+            || throwable instanceof FeignException.FeignServerException
+            || throwable instanceof IOException
+            || throwable.getCause() instanceof IOException;
+    }
     
     public ProductResponse reduceStock(Long id, StockReductionRequest request) {
         return circuitBreakerFactory.create("product-service")
                 .run(() -> productClientFeign.reduceStock(id, request),
                      throwable -> {
-                         // Fallback response when circuit breaker is open
-                         return ProductResponse.builder()
-                                 .id(id)
-                                 .name("Stock reduction failed - service unavailable")
-                                 .price(0.0)
-                                 .stock(0)
-                                 .build();
+                         throw new IllegalStateException("Stock reduction failed: " + throwable.getMessage(), throwable);
+                     });
+    }
+
+    public List<ReservedItem> reserveStock(StockReservationRequest request) {
+        // No synthetic fallback here: a reservation either happened or it did not
+        return circuitBreakerFactory.create("product-service")
+                .run(() -> productClientFeign.reserveStock(request),
+                     throwable -> {
+                         if (request.reservationId() != null && mayHaveReserved(throwable)) {
+                             releaseReservation(request.reservationId());
+                         }
+                         throw new IllegalStateException("Stock reservation failed: " + throwable.getMessage(), throwable);
                      });
     }
+
+    // The order is failed, so stock product-service may still have committed must go back. Product-service
+    // also remembers the release, which makes a reservation still on its way fail instead of taking stock.
+    private void releaseReservation(String reservationId) {
+        try {
+            productClientFeign.releaseReservation(reservationId);
+        } catch (RuntimeException ex) {
+            log.error("Could not release stock reservation {}; its stock stays reserved", reservationId, ex);
+        }
+    }
+
+    // Timed out, cut off or failed upstream: the request may have been applied. An open breaker never sent it,
+    // and a 4xx is product-service refusing it.
+    static boolean mayHaveReserved(Throwable throwable) {
+        return isUnavailable(throwable) && !(throwable instanceof CallNotPermittedException);
+    }
     
     @FeignClient(name = "product-service")
     interface ProductClientFeign {
@@ -52,7 +112,11 @@ public class ProductClient {
         
         @PostMapping("/api/v1/products/{id}/reduce-stock")
         ProductResponse reduceStock(@PathVariable("id") Long id, @RequestBody StockReductionRequest request);
-    }
-}
 
+        @PostMapping("/api/v1/products/reserve-stock")
+        List<ReservedItem> reserveStock(@RequestBody StockReservationRequest request);
 
+        @PostMapping("/api/v1/products/reserve-stock/{reservationId}/release")
+        void releaseReservation(@PathVariable("reservationId") String reservationId);
+    }
+}
@@ -0,0 +1,75 @@
+package com.mikro.order.product;
+
+import com.mikro.order.config.ForwardedAuthorization;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+@Component
+public class ProductLookup {
+    private final ProductClient productClient;
+    private final Duration deadline;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    public ProductLookup(ProductClient productClient,
+                         @Value("${order.product-lookup.deadline-ms:3000}") long deadlineMs) {
+        this.productClient = productClient;
+        this.deadline = Duration.ofMillis(deadlineMs);
+    }
+
+    // One virtual thread per product; the first failure or the per-order deadline cancels the rest
+    public Map<Long, ProductResponse> findAll(Collection<Long> productIds) {
+        List<Long> ids = productIds.stream().distinct().toList();
+        long deadlineNanos = System.nanoTime() + deadline.toNanos();
+
+        CompletionService<Map.Entry<Long, ProductResponse>> completion = new ExecutorCompletionService<>(executor);
+        List<Future<Map.Entry<Long, ProductResponse>>> futures = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            futures.add(completion.submit(ForwardedAuthorization.wrap(
+                () -> Map.entry(id, productClient.getProduct(id)))));
+        }
+
+        Map<Long, ProductResponse> products = new HashMap<>();
+        try {
+            for (int i = 0; i < ids.size(); i++) {
+                long remaining = deadlineNanos - System.nanoTime();
+                Future<Map.Entry<Long, ProductResponse>> done = completion.poll(remaining, TimeUnit.NANOSECONDS);
+                if (done == null) {
+                    throw new ProductLookupException("Product lookup exceeded deadline of " + deadline.toMillis() + " ms");
+                }
+                Map.Entry<Long, ProductResponse> entry = done.get();
+                if (entry.getValue() == null) {
+                    throw new ProductLookupException("Product not found with id: " + entry.getKey());
+                }
+                products.put(entry.getKey(), entry.getValue());
+            }
+        } catch (ExecutionException ex) {
+            throw new ProductLookupException("Product lookup failed: " + ex.getCause().getMessage(), ex.getCause());
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new ProductLookupException("Product lookup interrupted", ex);
+        } finally {
+            futures.forEach(future -> future.cancel(true));
+        }
+        return products;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+}
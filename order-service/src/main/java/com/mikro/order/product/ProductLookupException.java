@@ -0,0 +1,11 @@
+package com.mikro.order.product;
+
+public class ProductLookupException extends RuntimeException {
+    public ProductLookupException(String message) {
+        super(message);
+    }
+
+    public ProductLookupException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,73 @@
+package com.mikro.order.product;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Optional;
+
+// Entries are fresh for ttl; after that they are only served as a last known good value while
+// product-service is unreachable, until max-stale evicts them.
+@Component
+public class ProductNearCache {
+    private final Cache<Long, Entry> cache;
+    private final long ttlNanos;
+    private final Counter staleServed;
+    private final Timer staleAge;
+
+    public ProductNearCache(MeterRegistry meterRegistry,
+                            @Value("${product.near-cache.max-size:10000}") long maxSize,
+                            @Value("${product.near-cache.ttl-ms:30000}") long ttlMs,
+                            @Value("${product.near-cache.max-stale-ms:600000}") long maxStaleMs) {
+        this.cache = Caffeine.newBuilder()
+            .maximumSize(maxSize)
+            .expireAfterWrite(Duration.ofMillis(Math.max(ttlMs, maxStaleMs)))
+            .recordStats()
+            .build();
+        this.ttlNanos = Duration.ofMillis(ttlMs).toNanos();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "product-near-cache");
+        this.staleServed = Counter.builder("product.near-cache.stale.served")
+            .description("Lookups answered with an expired entry because product-service was unavailable")
+            .register(meterRegistry);
+        this.staleAge = Timer.builder("product.near-cache.stale.age")
+            .description("Age of expired entries served during an outage")
+            .register(meterRegistry);
+    }
+
+    public ProductResponse getFresh(Long productId) {
+        Entry entry = cache.getIfPresent(productId);
+        if (entry == null || System.nanoTime() - entry.loadedAt() > ttlNanos) {
+            return null;
+        }
+        return entry.product();
+    }
+
+    public Optional<ProductResponse> getStale(Long productId) {
+        // Bypass stats: this lookup is the fallback path, not a cache read
+        Entry entry = cache.asMap().get(productId);
+        if (entry == null) {
+            return Optional.empty();
+        }
+        staleServed.increment();
+        staleAge.record(Duration.ofNanos(System.nanoTime() - entry.loadedAt()));
+        return Optional.of(entry.product());
+    }
+
+    public void put(Long productId, ProductResponse product) {
+        if (product != null) {
+            cache.put(productId, new Entry(product, System.nanoTime()));
+        }
+    }
+
+    public void invalidate(Long productId) {
+        cache.invalidate(productId);
+    }
+
+    private record Entry(ProductResponse product, long loadedAt) {}
+}
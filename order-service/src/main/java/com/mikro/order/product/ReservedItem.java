@@ -0,0 +1,5 @@
+package com.mikro.order.product;
+
+import java.math.BigDecimal;
+
+public record ReservedItem(Long productId, String name, BigDecimal price, int remainingStock) {}
@@ -0,0 +1,8 @@
+package com.mikro.order.product;
+
+import java.util.List;
+
+// reservationId lets product-service recognise a repeated request and settle a release against it
+public record StockReservationRequest(String reservationId, List<Item> items) {
+    public record Item(Long productId, int quantity) {}
+}
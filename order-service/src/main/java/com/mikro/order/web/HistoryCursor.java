@@ -0,0 +1,29 @@
+package com.mikro.order.web;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+// Opaque keyset position in the order history: (createdAt, id) of the last order served
+record HistoryCursor(Instant createdAt, long id) {
+    private static final String SEPARATOR = "\n";
+
+    String encode() {
+        String raw = createdAt + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    // Throws IllegalArgumentException for anything this class did not encode
+    static HistoryCursor decode(String cursor) {
+        String[] parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split(SEPARATOR);
+        if (parts.length != 2) {
+            throw new IllegalArgumentException("Malformed cursor");
+        }
+        try {
+            return new HistoryCursor(Instant.parse(parts[0]), Long.parseLong(parts[1]));
+        } catch (DateTimeParseException ex) {
+            throw new IllegalArgumentException("Malformed cursor", ex);
+        }
+    }
+}
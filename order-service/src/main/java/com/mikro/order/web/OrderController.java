@@ -1,41 +1,54 @@
 package com.mikro.order.web;
 
-import com.mikro.order.amqp.PaymentEvents;
 import com.mikro.order.domain.Order;
+import com.mikro.order.domain.OrderHistoryQuery;
 import com.mikro.order.domain.OrderItem;
 import com.mikro.order.domain.OrderRepository;
+import com.mikro.order.outbox.PaymentOutbox;
 import com.mikro.order.product.ProductClient;
+import com.mikro.order.product.ProductLookup;
 import com.mikro.order.product.ProductResponse;
+import com.mikro.order.product.ReservedItem;
 import com.mikro.order.product.StockReductionRequest;
-import org.springframework.amqp.core.AmqpTemplate;
+import com.mikro.order.product.StockReservationRequest;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
 import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/api/v1/orders")
 public class OrderController implements OrderControllerApi {
+    private static final int MAX_HISTORY_PAGE_SIZE = 100;
+
     private final ProductClient productClient;
     private final OrderRepository orderRepository;
-    private final AmqpTemplate amqpTemplate;
-    private final String exchange;
-    private final String routingKey;
+    private final ProductLookup productLookup;
+    private final PaymentOutbox paymentOutbox;
+    private final boolean perItemReservation;
 
     public OrderController(ProductClient productClient,
                            OrderRepository orderRepository,
-                           AmqpTemplate amqpTemplate,
-                           @Value("${amqp.exchange}") String exchange,
-                           @Value("${amqp.routingKey}") String routingKey) {
+                           ProductLookup productLookup,
+                           PaymentOutbox paymentOutbox,
+                           @Value("${order.stock.reservation-mode:batch}") String reservationMode) {
         this.productClient = productClient;
         this.orderRepository = orderRepository;
-        this.amqpTemplate = amqpTemplate;
-        this.exchange = exchange;
-        this.routingKey = routingKey;
+        this.productLookup = productLookup;
+        this.paymentOutbox = paymentOutbox;
+        this.perItemReservation = "per-item".equalsIgnoreCase(reservationMode);
     }
 
     @Override
@@ -47,53 +60,65 @@ public class OrderController implements OrderControllerApi {
             .status("CREATED")
             .build();
 
-        // Process each item with stock reduction
+        List<ReservedItem> reserved;
+        try {
+            reserved = perItemReservation ? reservePerItem(req) : reserveBatch(req);
+        } catch (Exception ex) {
+            return ResponseEntity.badRequest().body(Map.of(
+                "error", "stock_reservation_failed",
+                "message", String.valueOf(ex.getMessage())
+            ));
+        }
+
+        Map<Long, ReservedItem> reservedById = reserved.stream()
+            .collect(Collectors.toMap(ReservedItem::productId, Function.identity(), (first, second) -> second));
         for (OrderItemRequest itemReq : req.items()) {
-            try {
-                // First get product details
-                ProductResponse product = productClient.getProduct(itemReq.productId());
-                if (product == null) {
-                    return ResponseEntity.badRequest().body(Map.of(
-                        "error", "product_not_found", 
-                        "productId", itemReq.productId()
-                    ));
-                }
-
-                // Reduce stock atomically
-                ProductResponse updatedProduct = productClient.reduceStock(
-                    itemReq.productId(), 
-                    new StockReductionRequest(itemReq.quantity())
-                );
-
-                BigDecimal itemTotal = product.price().multiply(BigDecimal.valueOf(itemReq.quantity()));
-                OrderItem orderItem = OrderItem.builder()
-                    .productId(product.id())
-                    .productName(product.name())
-                    .quantity(itemReq.quantity())
-                    .unitPrice(product.price())
-                    .totalPrice(itemTotal)
-                    .build();
-                
-                order.addItem(orderItem);
-            } catch (Exception ex) {
-                // If stock reduction fails, return error
-                return ResponseEntity.badRequest().body(Map.of(
-                    "error", "stock_reduction_failed", 
-                    "productId", itemReq.productId(),
-                    "message", ex.getMessage()
-                ));
-            }
+            ReservedItem product = reservedById.get(itemReq.productId());
+            BigDecimal itemTotal = product.price().multiply(BigDecimal.valueOf(itemReq.quantity()));
+            OrderItem orderItem = OrderItem.builder()
+                .productId(product.productId())
+                .productName(product.name())
+                .quantity(itemReq.quantity())
+                .unitPrice(product.price())
+                .totalPrice(itemTotal)
+                .build();
+
+            order.addItem(orderItem);
         }
 
         order.calculateTotalAmount();
-        order = orderRepository.save(order);
+        order = paymentOutbox.saveOrderAndEnqueuePayment(order);
 
-        amqpTemplate.convertAndSend(exchange, routingKey, 
-            new PaymentEvents.PaymentRequest(order.getId(), order.getTotalAmount()));
-        
         return ResponseEntity.ok(new OrderResponse(order));
     }
 
+    // Reserve stock for the whole order in one all-or-nothing call
+    private List<ReservedItem> reserveBatch(CreateOrderRequest req) {
+        return productClient.reserveStock(new StockReservationRequest(
+            UUID.randomUUID().toString(),
+            req.items().stream()
+                .map(item -> new StockReservationRequest.Item(item.productId(), item.quantity()))
+                .toList()
+        ));
+    }
+
+    // Legacy per-line calls; product lookups are fanned out concurrently, stock is reduced line by line
+    private List<ReservedItem> reservePerItem(CreateOrderRequest req) {
+        Map<Long, ProductResponse> products = productLookup.findAll(
+            req.items().stream().map(OrderItemRequest::productId).toList());
+
+        List<ReservedItem> reserved = new ArrayList<>(req.items().size());
+        for (OrderItemRequest itemReq : req.items()) {
+            ProductResponse product = products.get(itemReq.productId());
+            ProductResponse updated = productClient.reduceStock(
+                itemReq.productId(),
+                new StockReductionRequest(itemReq.quantity())
+            );
+            reserved.add(new ReservedItem(product.getId(), product.getName(), product.getPrice(), updated.getStock()));
+        }
+        return reserved;
+    }
+
     @Override
     public ResponseEntity<?> get(Long id) {
         String currentUser = String.valueOf(SecurityContextHolder.getContext().getAuthentication().getPrincipal());
@@ -106,11 +131,61 @@ public class OrderController implements OrderControllerApi {
     @Override
     public ResponseEntity<List<OrderResponse>> getMyOrders() {
         String currentUser = String.valueOf(SecurityContextHolder.getContext().getAuthentication().getPrincipal());
-        List<Order> orders = orderRepository.findByCustomerUsername(currentUser);
+        List<Order> orders = orderRepository.findByCustomerUsernameWithItems(currentUser);
         List<OrderResponse> responses = orders.stream().map(OrderResponse::new).toList();
         return ResponseEntity.ok(responses);
     }
 
+    @Override
+    public ResponseEntity<?> history(String status, Instant from, Instant to, String cursor, int size) {
+        String currentUser = String.valueOf(SecurityContextHolder.getContext().getAuthentication().getPrincipal());
+
+        HistoryCursor after = null;
+        if (cursor != null && !cursor.isBlank()) {
+            try {
+                after = HistoryCursor.decode(cursor);
+            } catch (IllegalArgumentException ex) {
+                return ResponseEntity.badRequest().body(Map.of(
+                    "error", "invalid_cursor",
+                    "message", "Cursor is malformed; restart from the first page"
+                ));
+            }
+        }
+
+        int pageSize = Math.min(Math.max(size, 1), MAX_HISTORY_PAGE_SIZE);
+        OrderHistoryQuery query = new OrderHistoryQuery(
+            currentUser,
+            status == null || status.isBlank() ? null : status.toUpperCase(Locale.ROOT),
+            from,
+            to,
+            after == null ? null : after.createdAt(),
+            after == null ? null : after.id()
+        );
+        // One extra id tells whether another page exists without counting
+        List<Long> ids = orderRepository.findHistoryPageIds(query, pageSize + 1);
+        boolean hasMore = ids.size() > pageSize;
+        if (hasMore) {
+            ids = ids.subList(0, pageSize);
+        }
+
+        Map<Long, Order> byId = ids.isEmpty() ? Map.of() : orderRepository.findAllWithItemsByIdIn(ids).stream()
+            .collect(Collectors.toMap(Order::getId, Function.identity()));
+        List<OrderResponse> items = ids.stream()
+            .map(byId::get)
+            .filter(Objects::nonNull)
+            .map(OrderResponse::new)
+            .toList();
+
+        String nextCursor = null;
+        if (hasMore) {
+            Order last = byId.get(ids.get(pageSize - 1));
+            if (last != null) {
+                nextCursor = new HistoryCursor(last.getCreatedAt(), last.getId()).encode();
+            }
+        }
+        return ResponseEntity.ok(new OrderHistoryPage(items, nextCursor));
+    }
+
 }
 
 
@@ -7,6 +7,7 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.math.BigDecimal;
+import java.time.Instant;
 import java.util.List;
 
 public interface OrderControllerApi {
@@ -20,8 +21,17 @@ public interface OrderControllerApi {
     @GetMapping
     ResponseEntity<List<OrderResponse>> getMyOrders();
 
+    // Newest first, keyset-paginated; from is inclusive, to exclusive (ISO-8601 instants)
+    @GetMapping("/history")
+    ResponseEntity<?> history(@RequestParam(required = false) String status,
+                              @RequestParam(required = false) Instant from,
+                              @RequestParam(required = false) Instant to,
+                              @RequestParam(required = false) String cursor,
+                              @RequestParam(defaultValue = "20") int size);
+
     record CreateOrderRequest(@NotEmpty List<OrderItemRequest> items) {}
     record OrderItemRequest(@Min(1) Long productId, @Min(1) int quantity) {}
+    record OrderHistoryPage(List<OrderResponse> items, String nextCursor) {}
     
     class OrderResponse {
         public Long id;
@@ -29,6 +39,8 @@ public interface OrderControllerApi {
         public List<OrderItemResponse> items;
         public BigDecimal totalAmount;
         public String status;
+        public Instant createdAt;
+        public Instant updatedAt;
 
         public OrderResponse() {}
 
@@ -48,6 +60,8 @@ public interface OrderControllerApi {
             this.items = order.getItems().stream().map(OrderItemResponse::new).toList();
             this.totalAmount = order.getTotalAmount();
             this.status = order.getStatus();
+            this.createdAt = order.getCreatedAt();
+            this.updatedAt = order.getUpdatedAt();
         }
     }
 
@@ -0,0 +1,120 @@
+package com.mikro.order.config;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.http.HttpServletRequest;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// The bearer-token path of JwtAuthFilter: the previous filter, which built a key and parser and verified the
+// HMAC on every request, against the current one backed by JwtVerifier's verified-token cache.
+//   mvn test -Dgroups=benchmark -DexcludedGroups=none -Dtest=JwtAuthFilterBenchmark
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class JwtAuthFilterBenchmark {
+    private static final String SECRET = "benchmark-secret-benchmark-secret-benchmark";
+
+    private String token;
+    private JwtAuthFilter cachedFilter;
+
+    @Setup
+    public void setUp() {
+        token = Jwts.builder()
+            .subject("benchmark-user")
+            .claim("role", "ROLE_CUSTOMER")
+            .issuedAt(new Date())
+            .expiration(Date.from(Instant.now().plusSeconds(3600)))
+            .signWith(Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8)))
+            .compact();
+        cachedFilter = new JwtAuthFilter(
+            new JwtVerifier(SECRET, 10_000, 300_000, new SimpleMeterRegistry()),
+            new IdentityHeaderVerifier("benchmark-identity-secret"));
+    }
+
+    @TearDown(Level.Invocation)
+    public void clearContext() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Benchmark
+    public void uncached(Blackhole blackhole) {
+        MockHttpServletRequest request = request();
+        uncachedFilter(request);
+        blackhole.consume(SecurityContextHolder.getContext().getAuthentication());
+    }
+
+    @Benchmark
+    public void cached(Blackhole blackhole) throws Exception {
+        MockHttpServletRequest request = request();
+        FilterChain chain = new MockFilterChain();
+        cachedFilter.doFilter(request, new MockHttpServletResponse(), chain);
+        blackhole.consume(SecurityContextHolder.getContext().getAuthentication());
+    }
+
+    private MockHttpServletRequest request() {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/orders");
+        request.addHeader("Authorization", "Bearer " + token);
+        return request;
+    }
+
+    // The filter body as it was before the verified-token cache
+    private static void uncachedFilter(HttpServletRequest request) {
+        String header = request.getHeader("Authorization");
+        if (header != null && header.startsWith("Bearer ")) {
+            Claims claims = Jwts.parser()
+                .verifyWith(Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8)))
+                .build()
+                .parseSignedClaims(header.substring(7))
+                .getPayload();
+            var auth = new UsernamePasswordAuthenticationToken(
+                claims.getSubject(), null,
+                List.of(new SimpleGrantedAuthority(String.valueOf(claims.getOrDefault("role", "ROLE_USER")))));
+            auth.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+            SecurityContextHolder.getContext().setAuthentication(auth);
+        }
+    }
+
+    // Not forked: surefire's manifest-only classpath does not carry over to a forked JVM
+    @Test
+    @Tag("benchmark")
+    void run() throws Exception {
+        new Runner(new OptionsBuilder()
+            .include(JwtAuthFilterBenchmark.class.getName() + "\\.")
+            .forks(0)
+            .build())
+            .run();
+    }
+}
@@ -0,0 +1,135 @@
+package com.mikro.order.product;
+
+import feign.FeignException;
+import feign.Request;
+import feign.RetryableException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.circuitbreaker.resilience4j.Resilience4JCircuitBreaker;
+import org.springframework.cloud.circuitbreaker.resilience4j.Resilience4JCircuitBreakerFactory;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ProductClientTest {
+    private static final Request REQUEST = Request.create(Request.HttpMethod.GET, "/api/v1/products/7", Map.of(),
+        null, StandardCharsets.UTF_8, null);
+    private static final ProductResponse MUG = ProductResponse.builder()
+        .id(7L).name("Mug").stock(3).price(new BigDecimal("9.90")).build();
+
+    private final ProductClient.ProductClientFeign feign = mock(ProductClient.ProductClientFeign.class);
+    // Expires every entry at once, so lookups always go to product-service and only the fallback can use the cache
+    private final ProductNearCache nearCache = new ProductNearCache(new SimpleMeterRegistry(), 100, 0, 60_000);
+    private ProductClient client;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        // Runs the call and hands any failure to the fallback, as the circuit breaker does
+        Resilience4JCircuitBreaker breaker = mock(Resilience4JCircuitBreaker.class);
+        when(breaker.run(any(Supplier.class), any(Function.class))).thenAnswer(invocation -> {
+            try {
+                return invocation.<Supplier<Object>>getArgument(0).get();
+            } catch (Throwable throwable) {
+                return invocation.<Function<Throwable, Object>>getArgument(1).apply(throwable);
+            }
+        });
+        Resilience4JCircuitBreakerFactory factory = mock(Resilience4JCircuitBreakerFactory.class);
+        when(factory.create(anyString())).thenReturn(breaker);
+        client = new ProductClient(feign, factory, nearCache);
+        nearCache.put(7L, MUG);
+    }
+
+    @Test
+    void servesTheStaleEntryWhenProductServiceFailsWithA5xx() {
+        when(feign.getProduct(7L)).thenThrow(FeignException.errorStatus("getProduct", response(503)));
+
+        assertThat(client.getProduct(7L)).isEqualTo(MUG);
+    }
+
+    @Test
+    void servesTheStaleEntryWhenProductServiceIsUnreachable() {
+        when(feign.getProduct(7L)).thenThrow(new RetryableException(-1, "Connection refused",
+            Request.HttpMethod.GET, (Long) null, REQUEST));
+
+        assertThat(client.getProduct(7L)).isEqualTo(MUG);
+    }
+
+    @Test
+    void aDeletedProductIsNotAnsweredFromTheCache() {
+        when(feign.getProduct(7L)).thenThrow(FeignException.errorStatus("getProduct", response(404)));
+
+        assertThatThrownBy(() -> client.getProduct(7L)).isInstanceOf(FeignException.NotFound.class);
+        assertThat(nearCache.getStale(7L)).isEmpty();
+    }
+
+    @Test
+    void otherClientErrorsAreRethrown() {
+        when(feign.getProduct(7L)).thenThrow(FeignException.errorStatus("getProduct", response(403)));
+
+        assertThatThrownBy(() -> client.getProduct(7L)).isInstanceOf(FeignException.Forbidden.class);
+    }
+
+    @Test
+    void aTimedOutReservationIsReleased() {
+        StockReservationRequest request = reservation();
+        when(feign.reserveStock(request)).thenAnswer(invocation -> {
+            throw new TimeoutException("TimeLimiter 'product-service' recorded a timeout");
+        });
+
+        assertThatThrownBy(() -> client.reserveStock(request)).isInstanceOf(IllegalStateException.class);
+        verify(feign).releaseReservation("order-1");
+    }
+
+    @Test
+    void aReservationCutOffByAServerErrorIsReleased() {
+        StockReservationRequest request = reservation();
+        when(feign.reserveStock(request)).thenThrow(FeignException.errorStatus("reserveStock", response(502)));
+        doThrow(FeignException.errorStatus("releaseReservation", response(503)))
+            .when(feign).releaseReservation("order-1");
+
+        // A failed release is logged; the caller still sees the reservation failure
+        assertThatThrownBy(() -> client.reserveStock(request))
+            .isInstanceOf(IllegalStateException.class)
+            .hasMessageContaining("Stock reservation failed");
+        verify(feign).releaseReservation("order-1");
+    }
+
+    @Test
+    void aRefusedReservationIsNotReleased() {
+        StockReservationRequest request = reservation();
+        when(feign.reserveStock(request)).thenThrow(FeignException.errorStatus("reserveStock", response(400)));
+
+        assertThatThrownBy(() -> client.reserveStock(request)).isInstanceOf(IllegalStateException.class);
+        verify(feign, never()).releaseReservation(anyString());
+    }
+
+    private static StockReservationRequest reservation() {
+        return new StockReservationRequest("order-1", List.of(new StockReservationRequest.Item(7L, 2)));
+    }
+
+    private static feign.Response response(int status) {
+        return feign.Response.builder()
+            .status(status)
+            .reason("status " + status)
+            .request(REQUEST)
+            .headers(Map.of())
+            .build();
+    }
+}
@@ -1,13 +1,26 @@
 package com.mikro.payment.amqp;
 
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.amqp.core.Binding;
 import org.springframework.amqp.core.BindingBuilder;
+import org.springframework.amqp.core.Declarable;
+import org.springframework.amqp.core.Declarables;
+import org.springframework.amqp.core.MessageListener;
 import org.springframework.amqp.core.Queue;
 import org.springframework.amqp.core.TopicExchange;
+import org.springframework.amqp.rabbit.config.SimpleRabbitListenerContainerFactory;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.amqp.support.converter.MessageConverter;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.cloud.client.discovery.DiscoveryClient;
+import org.springframework.cloud.client.serviceregistry.Registration;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+import java.util.ArrayList;
+import java.util.List;
+
 @Configuration
 public class AmqpConfig {
     @Bean
@@ -30,6 +43,55 @@ public class AmqpConfig {
                                   @Value("${amqp.routingKey}") String routingKey) {
         return BindingBuilder.bind(paymentRequestQueue).to(paymentExchange).with(routingKey);
     }
-}
 
+    // Opt-in partitioned topology (amqp.partitions.count > 0): one request and one result queue per partition
+    @Bean
+    public Declarables paymentPartitionQueues(PaymentPartitions partitions, TopicExchange paymentExchange) {
+        List<Declarable> declarables = new ArrayList<>();
+        for (int partition = 0; partition < partitions.count(); partition++) {
+            Queue requests = new Queue(partitions.requestQueue(partition), true);
+            declarables.add(requests);
+            declarables.add(BindingBuilder.bind(requests).to(paymentExchange).with(partitions.requestRoutingKey(partition)));
+            declarables.add(new Queue(partitions.resultQueue(partition), true));
+        }
+        return new Declarables(declarables);
+    }
+
+    // Retry tiers and a DLQ behind every payment request queue this service consumes, partitions included
+    @Bean
+    public Declarables paymentRequestRetryQueues(RetryTopology retryTopology, PaymentPartitions partitions) {
+        List<Declarable> declarables = new ArrayList<>();
+        for (String queue : partitions.requestQueues()) {
+            declarables.addAll(retryTopology.declarablesFor(queue));
+        }
+        return new Declarables(declarables);
+    }
 
+    @Bean
+    public DeadLetterEndpoint deadLetterEndpoint(RabbitTemplate rabbitTemplate, TieredRetryRecoverer recoverer,
+                                                 RetryTopology retryTopology, MeterRegistry meterRegistry,
+                                                 PaymentPartitions partitions) {
+        return new DeadLetterEndpoint(rabbitTemplate, recoverer, retryTopology, meterRegistry, partitions.requestQueues());
+    }
+
+    // Consumes the request partitions this instance owns; replaces the single-queue PaymentListener container
+    @Bean
+    @ConditionalOnExpression("${amqp.partitions.count:0} > 0")
+    public PartitionAssignment paymentRequestPartitions(PaymentPartitions partitions,
+                                                        SimpleRabbitListenerContainerFactory rabbitListenerContainerFactory,
+                                                        PaymentListener paymentListener,
+                                                        MessageConverter messageConverter,
+                                                        DiscoveryClient discoveryClient,
+                                                        Registration registration) {
+        MessageListener listener = message -> {
+            try {
+                paymentListener.onPaymentRequest((PaymentEvents.PaymentRequest) messageConverter.fromMessage(message));
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while handling a payment request", ex);
+            }
+        };
+        return new PartitionAssignment(partitions.count(), partitions::requestQueue, rabbitListenerContainerFactory,
+            listener, discoveryClient, registration.getServiceId(), registration.getInstanceId());
+    }
+}
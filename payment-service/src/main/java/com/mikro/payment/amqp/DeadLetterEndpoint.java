@@ -0,0 +1,177 @@
+package com.mikro.payment.amqp;
+
+import com.rabbitmq.client.GetResponse;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageBuilder;
+import org.springframework.amqp.core.MessageDeliveryMode;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.amqp.rabbit.support.DefaultMessagePropertiesConverter;
+import org.springframework.amqp.rabbit.support.MessagePropertiesConverter;
+import org.springframework.boot.actuate.endpoint.InvalidEndpointRequestException;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.lang.Nullable;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// paymentdlq (exposed over JMX, org.springframework.boot:type=Endpoint,name=Paymentdlq): DLQ depth per consumed
+// queue, a non-destructive look at the oldest dead letters (read operation with queue and limit) and a bulk replay
+// onto the original queue (write operation with queue and limit) with the retry count reset.
+@Endpoint(id = "paymentdlq")
+public class DeadLetterEndpoint {
+    private static final int DEFAULT_LIMIT = 20;
+    private static final int MAX_LIMIT = 10_000;
+
+    private final RabbitTemplate rabbitTemplate;
+    private final TieredRetryRecoverer recoverer;
+    private final RetryTopology retryTopology;
+    private final List<String> queues;
+    private final MessagePropertiesConverter propertiesConverter = new DefaultMessagePropertiesConverter();
+
+    public DeadLetterEndpoint(RabbitTemplate rabbitTemplate,
+                              TieredRetryRecoverer recoverer,
+                              RetryTopology retryTopology,
+                              MeterRegistry meterRegistry,
+                              List<String> queues) {
+        this.rabbitTemplate = rabbitTemplate;
+        this.recoverer = recoverer;
+        this.retryTopology = retryTopology;
+        this.queues = queues;
+        for (String queue : queues) {
+            Gauge.builder("payment.messages.dlq.depth", () -> gaugeDepth(queue))
+                .description("Messages waiting in the dead-letter queue")
+                .tag("queue", queue)
+                .register(meterRegistry);
+        }
+    }
+
+    @ReadOperation
+    public Map<String, Long> depths() {
+        Map<String, Long> depths = new LinkedHashMap<>();
+        for (String queue : queues) {
+            depths.put(queue, depth(queue));
+        }
+        return depths;
+    }
+
+    @ReadOperation
+    public List<DeadLetter> peek(@Selector String queue, @Nullable Integer limit) {
+        String dlq = retryTopology.deadLetterQueue(checked(queue));
+        int max = bounded(limit);
+        return rabbitTemplate.execute(channel -> {
+            List<DeadLetter> letters = new ArrayList<>();
+            long lastTag = -1;
+            while (letters.size() < max) {
+                GetResponse response = channel.basicGet(dlq, false);
+                if (response == null) {
+                    break;
+                }
+                lastTag = response.getEnvelope().getDeliveryTag();
+                letters.add(DeadLetter.of(toMessage(response)));
+            }
+            if (lastTag >= 0) {
+                // Put everything back where it was
+                channel.basicNack(lastTag, true, true);
+            }
+            return letters;
+        });
+    }
+
+    @WriteOperation
+    public Map<String, Object> replay(@Selector String queue, @Nullable Integer limit) {
+        String dlq = retryTopology.deadLetterQueue(checked(queue));
+        int max = bounded(limit);
+        Integer replayed = rabbitTemplate.execute(channel -> {
+            int moved = 0;
+            while (moved < max) {
+                GetResponse response = channel.basicGet(dlq, false);
+                if (response == null) {
+                    break;
+                }
+                long tag = response.getEnvelope().getDeliveryTag();
+                try {
+                    Message message = toMessage(response);
+                    String target = message.getMessageProperties().getHeader(TieredRetryRecoverer.ORIGINAL_QUEUE_HEADER);
+                    recoverer.publish(target != null ? target : queue, MessageBuilder.fromMessage(message)
+                        .removeHeader(TieredRetryRecoverer.RETRY_COUNT_HEADER)
+                        .removeHeader(TieredRetryRecoverer.LAST_ERROR_HEADER)
+                        .setDeliveryMode(MessageDeliveryMode.PERSISTENT)
+                        .build());
+                } catch (RuntimeException ex) {
+                    channel.basicNack(tag, false, true);
+                    throw ex;
+                }
+                // Removed from the DLQ only once the copy on the original queue is confirmed
+                channel.basicAck(tag, false);
+                moved++;
+            }
+            return moved;
+        });
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("queue", queue);
+        result.put("replayed", replayed);
+        result.put("remaining", depth(queue));
+        return result;
+    }
+
+    private long depth(String queue) {
+        Long count = rabbitTemplate.execute(channel -> channel.messageCount(retryTopology.deadLetterQueue(queue)));
+        return count != null ? count : 0;
+    }
+
+    // A scrape while the broker is unreachable reports no value instead of failing
+    private double gaugeDepth(String queue) {
+        try {
+            return depth(queue);
+        } catch (AmqpException ex) {
+            return Double.NaN;
+        }
+    }
+
+    private String checked(String queue) {
+        if (!queues.contains(queue)) {
+            throw new InvalidEndpointRequestException("Unknown queue " + queue + ", expected one of " + queues,
+                "Unknown queue");
+        }
+        return queue;
+    }
+
+    private static int bounded(@Nullable Integer limit) {
+        return limit == null ? DEFAULT_LIMIT : Math.max(1, Math.min(limit, MAX_LIMIT));
+    }
+
+    private Message toMessage(GetResponse response) {
+        MessageProperties properties = propertiesConverter.toMessageProperties(
+            response.getProps(), response.getEnvelope(), StandardCharsets.UTF_8.name());
+        return new Message(response.getBody(), properties);
+    }
+
+    public record DeadLetter(String messageId, String originalQueue, Object retryCount, String lastError,
+                             String contentType, Object typeId, int bodyBytes, String body) {
+        static DeadLetter of(Message message) {
+            MessageProperties properties = message.getMessageProperties();
+            // Only JSON bodies are shown as text; CBOR stays opaque
+            String body = properties.getContentType() != null && properties.getContentType().contains("json")
+                ? new String(message.getBody(), StandardCharsets.UTF_8) : null;
+            return new DeadLetter(properties.getMessageId(),
+                properties.getHeader(TieredRetryRecoverer.ORIGINAL_QUEUE_HEADER),
+                properties.getHeader(TieredRetryRecoverer.RETRY_COUNT_HEADER),
+                properties.getHeader(TieredRetryRecoverer.LAST_ERROR_HEADER) != null
+                    ? properties.getHeader(TieredRetryRecoverer.LAST_ERROR_HEADER).toString() : null,
+                properties.getContentType(),
+                properties.getHeader("__TypeId__"),
+                message.getBody().length,
+                body);
+        }
+    }
+}
@@ -0,0 +1,9 @@
+package com.mikro.payment.amqp;
+
+import java.math.BigDecimal;
+
+public class PaymentEvents {
+    public record PaymentRequest(Long orderId, BigDecimal amount) {}
+    // version orders results for the same order; the consumer ignores anything not newer than what it applied
+    public record PaymentResult(Long orderId, String status, long version) {}
+}
@@ -1,32 +1,60 @@
 package com.mikro.payment.amqp;
 
+import com.mikro.payment.dedupe.PaymentDedupeStore;
+import com.mikro.payment.provider.PaymentProvider;
+import com.mikro.payment.provider.PaymentProviderGateway;
 import org.springframework.amqp.rabbit.annotation.RabbitListener;
-import org.springframework.amqp.rabbit.core.RabbitTemplate;
 import org.springframework.stereotype.Component;
 
-import java.math.BigDecimal;
-import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
+// Concurrency and prefetch come from spring.rabbitmq.listener.simple.*; with spring.threads.virtual.enabled
+// each consumer runs on a virtual thread, so waiting on a slow gateway or a result confirm costs no carrier thread.
 @Component
 public class PaymentListener {
-    private final RabbitTemplate rabbitTemplate;
-
-    private final String resultQueue;
-
-    public PaymentListener(RabbitTemplate rabbitTemplate,
-                           @org.springframework.beans.factory.annotation.Value("${amqp.resultQueue}") String resultQueue) {
-        this.rabbitTemplate = rabbitTemplate;
-        this.resultQueue = resultQueue;
+    // First decision for an order; a later, deliberate re-charge would publish a higher version
+    private static final long FIRST_VERSION = 1;
+
+    private final PaymentResultPublisher resultPublisher;
+    private final PaymentDedupeStore dedupeStore;
+    private final PaymentProviderGateway providerGateway;
+
+    public PaymentListener(PaymentResultPublisher resultPublisher,
+                           PaymentDedupeStore dedupeStore,
+                           PaymentProviderGateway providerGateway) {
+        this.resultPublisher = resultPublisher;
+        this.dedupeStore = dedupeStore;
+        this.providerGateway = providerGateway;
     }
 
-    public record PaymentRequest(Long orderId, BigDecimal amount) {}
-    public record PaymentResult(Long orderId, String status) {}
+    // Idle when the partitioned topology is on; PartitionAssignment then feeds this method per owned partition
+    @RabbitListener(queues = "${amqp.requestQueue}", autoStartup = "#{${amqp.partitions.count:0} <= 0}")
+    public void onPaymentRequest(PaymentEvents.PaymentRequest request) throws InterruptedException {
+        // A redelivered request gets the recorded result again; only the publish is repeated
+        PaymentEvents.PaymentResult result = dedupeStore.resolve(request.orderId(), () -> {
+            // Throttling, timeouts and capacity rejections propagate, so nothing is recorded and the request is requeued
+            PaymentProvider.ChargeResult outcome = await(providerGateway.charge(request));
+            String status = outcome.status() == PaymentProvider.ChargeStatus.APPROVED ? "PAID" : "FAILED";
+            return new PaymentEvents.PaymentResult(request.orderId(), status, FIRST_VERSION);
+        });
+        try {
+            // Ack the request only after the result is confirmed; a failure requeues it
+            resultPublisher.publish(result)
+                .get(resultPublisher.confirmTimeout().toMillis() * 2, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException | TimeoutException ex) {
+            throw new IllegalStateException("Payment result for order " + request.orderId() + " was not confirmed", ex);
+        }
+    }
 
-    @RabbitListener(queues = "${amqp.requestQueue}")
-    public void onPaymentRequest(PaymentRequest request) {
-        String status = new Random().nextInt(100) < 90 ? "PAID" : "FAILED";
-        rabbitTemplate.convertAndSend(resultQueue, new PaymentResult(request.orderId(), status));
+    private static PaymentProvider.ChargeResult await(CompletableFuture<PaymentProvider.ChargeResult> charge) {
+        try {
+            return charge.join();
+        } catch (CompletionException ex) {
+            throw ex.getCause() instanceof RuntimeException cause ? cause : ex;
+        }
     }
 }
-
-
@@ -0,0 +1,80 @@
+package com.mikro.payment.amqp;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.IntFunction;
+
+// Opt-in partitioned payment topology. With amqp.partitions.count > 0 every order maps to one of N request and
+// result queues, so all messages for an order go through the same queue and the same single consumer.
+// Both services compute the same partition for an order. With 0, the single queues are used as before.
+@Component
+public class PaymentPartitions {
+    private final int count;
+    private final String requestQueue;
+    private final String resultQueue;
+    private final String routingKey;
+
+    public PaymentPartitions(@Value("${amqp.partitions.count:0}") int count,
+                             @Value("${amqp.requestQueue}") String requestQueue,
+                             @Value("${amqp.resultQueue}") String resultQueue,
+                             @Value("${amqp.routingKey}") String routingKey) {
+        this.count = Math.max(0, count);
+        this.requestQueue = requestQueue;
+        this.resultQueue = resultQueue;
+        this.routingKey = routingKey;
+    }
+
+    public boolean enabled() {
+        return count > 0;
+    }
+
+    public int count() {
+        return count;
+    }
+
+    public int partitionOf(Long orderId) {
+        // Fibonacci hashing spreads sequential ids evenly; the result must stay stable across releases
+        return Math.floorMod(Long.hashCode(orderId * 0x9E3779B97F4A7C15L), count);
+    }
+
+    public String requestRoutingKey(Long orderId) {
+        return enabled() ? requestRoutingKey(partitionOf(orderId)) : routingKey;
+    }
+
+    public String requestRoutingKey(int partition) {
+        return routingKey + "." + partition;
+    }
+
+    public String requestQueue(int partition) {
+        return requestQueue + "." + partition;
+    }
+
+    public String resultQueueFor(Long orderId) {
+        return enabled() ? resultQueue(partitionOf(orderId)) : resultQueue;
+    }
+
+    public String resultQueue(int partition) {
+        return resultQueue + "." + partition;
+    }
+
+    // Single queue first, then every partition; the single queue may still hold messages from before partitioning
+    public List<String> requestQueues() {
+        return withPartitions(requestQueue, this::requestQueue);
+    }
+
+    public List<String> resultQueues() {
+        return withPartitions(resultQueue, this::resultQueue);
+    }
+
+    private List<String> withPartitions(String single, IntFunction<String> partitionQueue) {
+        List<String> queues = new ArrayList<>(count + 1);
+        queues.add(single);
+        for (int partition = 0; partition < count; partition++) {
+            queues.add(partitionQueue.apply(partition));
+        }
+        return queues;
+    }
+}
@@ -0,0 +1,132 @@
+package com.mikro.payment.amqp;
+
+import com.mikro.payment.dedupe.PaymentDedupeStore;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+// Group-commits payment results: concurrent consumers hand their result over and wait, one thread publishes
+// whatever has accumulated on a single cached channel and waits for one broker confirm for the whole batch.
+// The dedupe decisions behind a batch are committed in one write just before it is published.
+// A consumer only acks its request once its result is confirmed, so nothing is lost if the instance dies.
+@Component
+public class PaymentResultPublisher {
+    private static final Logger log = LoggerFactory.getLogger(PaymentResultPublisher.class);
+
+    private final RabbitTemplate rabbitTemplate;
+    private final PaymentDedupeStore dedupeStore;
+    private final PaymentPartitions partitions;
+    private final int batchSize;
+    private final long lingerMs;
+    private final long confirmTimeoutMs;
+    private final BlockingQueue<Pending> pending = new LinkedBlockingQueue<>();
+    private final DistributionSummary batchSizes;
+    private final Timer confirmTimer;
+    private volatile boolean running = true;
+    private Thread publisherThread;
+
+    public PaymentResultPublisher(RabbitTemplate rabbitTemplate,
+                                  PaymentDedupeStore dedupeStore,
+                                  MeterRegistry meterRegistry,
+                                  PaymentPartitions partitions,
+                                  @Value("${payment.results.batch-size:100}") int batchSize,
+                                  @Value("${payment.results.linger-ms:5}") long lingerMs,
+                                  @Value("${payment.results.confirm-timeout-ms:5000}") long confirmTimeoutMs) {
+        this.rabbitTemplate = rabbitTemplate;
+        this.dedupeStore = dedupeStore;
+        this.partitions = partitions;
+        this.batchSize = batchSize;
+        this.lingerMs = lingerMs;
+        this.confirmTimeoutMs = confirmTimeoutMs;
+        this.batchSizes = DistributionSummary.builder("payment.results.batch.size").register(meterRegistry);
+        this.confirmTimer = Timer.builder("payment.results.batch.confirm").register(meterRegistry);
+        meterRegistry.gauge("payment.results.pending", pending, BlockingQueue::size);
+    }
+
+    @PostConstruct
+    void start() {
+        publisherThread = Thread.ofPlatform().name("payment-result-publisher").daemon().start(this::run);
+    }
+
+    // Completes once the broker confirmed the result, exceptionally if it nacked or timed out
+    public CompletableFuture<Void> publish(PaymentEvents.PaymentResult result) {
+        CompletableFuture<Void> confirmed = new CompletableFuture<>();
+        pending.add(new Pending(result, confirmed));
+        return confirmed;
+    }
+
+    public Duration confirmTimeout() {
+        return Duration.ofMillis(confirmTimeoutMs);
+    }
+
+    private void run() {
+        List<Pending> batch = new ArrayList<>(batchSize);
+        while (running || !pending.isEmpty()) {
+            try {
+                Pending first = pending.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                // Give concurrent consumers a moment to join the batch
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(lingerMs);
+                while (batch.size() < batchSize) {
+                    Pending next = pending.poll(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                publishBatch(batch);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void publishBatch(List<Pending> batch) {
+        try {
+            dedupeStore.commit();
+            confirmTimer.record(() -> rabbitTemplate.invoke(operations -> {
+                for (Pending item : batch) {
+                    operations.convertAndSend(partitions.resultQueueFor(item.result().orderId()), item.result());
+                }
+                operations.waitForConfirmsOrDie(confirmTimeoutMs);
+                return null;
+            }));
+            batchSizes.record(batch.size());
+            batch.forEach(item -> item.confirmed().complete(null));
+        } catch (RuntimeException ex) {
+            log.warn("Publishing {} payment results failed: {}", batch.size(), ex.getMessage());
+            batch.forEach(item -> item.confirmed().completeExceptionally(ex));
+        }
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        running = false;
+        if (publisherThread != null) {
+            publisherThread.join(confirmTimeoutMs);
+        }
+    }
+
+    private record Pending(PaymentEvents.PaymentResult result, CompletableFuture<Void> confirmed) {}
+}
@@ -0,0 +1,61 @@
+package com.mikro.payment.amqp;
+
+import org.springframework.amqp.core.Declarable;
+import org.springframework.amqp.core.Queue;
+import org.springframework.amqp.core.QueueBuilder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Delayed retries without a broker plugin: a failed message is parked in <queue>.retry.<tier>, whose TTL is that
+// tier's delay, and dead-lettered back onto <queue> when it expires. After the last tier it goes to <queue>.dlq.
+// Every message in a tier queue has the same TTL, so expiry never waits behind a message with a longer delay.
+@Component
+public class RetryTopology {
+    private final List<Duration> delays;
+    private final Set<String> managed = ConcurrentHashMap.newKeySet();
+
+    public RetryTopology(@Value("${amqp.retry.delays-ms:1000,10000,60000}") List<Long> delaysMs) {
+        this.delays = delaysMs.stream().map(Duration::ofMillis).toList();
+    }
+
+    public int tiers() {
+        return delays.size();
+    }
+
+    public Duration delay(int tier) {
+        return delays.get(tier);
+    }
+
+    public String retryQueue(String queue, int tier) {
+        return queue + ".retry." + tier;
+    }
+
+    public String deadLetterQueue(String queue) {
+        return queue + ".dlq";
+    }
+
+    // Whether retry queues were declared for this queue; others keep the container's plain requeue
+    public boolean manages(String queue) {
+        return managed.contains(queue);
+    }
+
+    public List<Declarable> declarablesFor(String queue) {
+        managed.add(queue);
+        List<Declarable> declarables = new ArrayList<>(delays.size() + 1);
+        for (int tier = 0; tier < delays.size(); tier++) {
+            declarables.add(QueueBuilder.durable(retryQueue(queue, tier))
+                .ttl((int) delays.get(tier).toMillis())
+                .deadLetterExchange("")
+                .deadLetterRoutingKey(queue)
+                .build());
+        }
+        declarables.add(new Queue(deadLetterQueue(queue), true));
+        return declarables;
+    }
+}
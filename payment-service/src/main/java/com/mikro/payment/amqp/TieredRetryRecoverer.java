@@ -0,0 +1,111 @@
+package com.mikro.payment.amqp;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageBuilder;
+import org.springframework.amqp.core.MessageDeliveryMode;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.amqp.rabbit.retry.MessageBatchRecoverer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+// Picked up by the listener container factories (spring.rabbitmq.listener.simple.retry.enabled) instead of the
+// default requeue: a failed message moves to the next retry tier, or to the DLQ after the last one, and is acked
+// only once the broker confirmed the copy. A failure here leaves the message to be requeued as before.
+@Component
+public class TieredRetryRecoverer implements MessageBatchRecoverer {
+    public static final String RETRY_COUNT_HEADER = "x-retry-count";
+    public static final String ORIGINAL_QUEUE_HEADER = "x-original-queue";
+    public static final String LAST_ERROR_HEADER = "x-last-error";
+
+    private static final Logger log = LoggerFactory.getLogger(TieredRetryRecoverer.class);
+
+    private final RabbitTemplate rabbitTemplate;
+    private final RetryTopology retryTopology;
+    private final MeterRegistry meterRegistry;
+    private final long confirmTimeoutMs;
+
+    public TieredRetryRecoverer(RabbitTemplate rabbitTemplate,
+                                RetryTopology retryTopology,
+                                MeterRegistry meterRegistry,
+                                @Value("${amqp.retry.confirm-timeout-ms:5000}") long confirmTimeoutMs) {
+        this.rabbitTemplate = rabbitTemplate;
+        this.retryTopology = retryTopology;
+        this.meterRegistry = meterRegistry;
+        this.confirmTimeoutMs = confirmTimeoutMs;
+    }
+
+    @Override
+    public void recover(Message message, Throwable cause) {
+        sendConfirmed(List.of(route(message, cause)));
+    }
+
+    // A failed batch rolled back as a whole; every message in it takes its own next step
+    @Override
+    public void recover(List<Message> messages, Throwable cause) {
+        sendConfirmed(messages.stream().map(message -> route(message, cause)).toList());
+    }
+
+    // Used by the DLQ endpoint to put a message back on its queue
+    void publish(String queue, Message message) {
+        sendConfirmed(List.of(new Routed(queue, message)));
+    }
+
+    private Routed route(Message message, Throwable cause) {
+        String queue = originalQueue(message);
+        if (queue == null || !retryTopology.manages(queue)) {
+            // Fail the recovery so the container requeues as it always did
+            throw new AmqpException("No retry topology for queue " + queue, cause);
+        }
+        Object count = message.getMessageProperties().getHeader(RETRY_COUNT_HEADER);
+        int attempt = count instanceof Number number ? number.intValue() : 0;
+        Throwable root = rootCause(cause);
+
+        Message copy = MessageBuilder.fromClonedMessage(message)
+            .setHeader(RETRY_COUNT_HEADER, attempt + 1)
+            .setHeader(ORIGINAL_QUEUE_HEADER, queue)
+            .setHeader(LAST_ERROR_HEADER, root.getClass().getSimpleName() + ": " + root.getMessage())
+            .setDeliveryMode(MessageDeliveryMode.PERSISTENT)
+            .build();
+
+        if (attempt < retryTopology.tiers()) {
+            meterRegistry.counter("payment.messages.retried", "queue", queue, "tier", String.valueOf(attempt)).increment();
+            log.debug("Retrying message from {} in {} (attempt {}): {}",
+                queue, retryTopology.delay(attempt), attempt + 1, root.getMessage());
+            return new Routed(retryTopology.retryQueue(queue, attempt), copy);
+        }
+        meterRegistry.counter("payment.messages.dead-lettered", "queue", queue).increment();
+        log.warn("Dead-lettering message from {} after {} attempts: {}", queue, attempt + 1, root.getMessage());
+        return new Routed(retryTopology.deadLetterQueue(queue), copy);
+    }
+
+    private static String originalQueue(Message message) {
+        String original = message.getMessageProperties().getHeader(ORIGINAL_QUEUE_HEADER);
+        return original != null ? original : message.getMessageProperties().getConsumerQueue();
+    }
+
+    private static Throwable rootCause(Throwable cause) {
+        Throwable root = cause;
+        while (root.getCause() != null && root.getCause() != root) {
+            root = root.getCause();
+        }
+        return root;
+    }
+
+    private void sendConfirmed(List<Routed> routed) {
+        rabbitTemplate.invoke(operations -> {
+            for (Routed item : routed) {
+                operations.send("", item.queue(), item.message());
+            }
+            operations.waitForConfirmsOrDie(confirmTimeoutMs);
+            return null;
+        });
+    }
+
+    private record Routed(String queue, Message message) {}
+}
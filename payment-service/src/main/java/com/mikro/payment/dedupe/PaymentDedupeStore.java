@@ -0,0 +1,128 @@
+package com.mikro.payment.dedupe;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.mikro.payment.amqp.PaymentEvents;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PreDestroy;
+import org.h2.mvstore.MVMap;
+import org.h2.mvstore.MVStore;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+// Remembers the result decided for each order so a redelivered payment request replays it instead of charging again.
+// Hot entries live in a bounded LRU; every decision is also written to a local MVStore file, and committed by
+// PaymentResultPublisher once per batch before the results are published, so replays survive restarts.
+// Concurrent deliveries of the same order share one in-flight decision.
+@Component
+public class PaymentDedupeStore {
+    private final MVStore store;
+    private final MVMap<Long, String> decisions;
+    private final Cache<Long, PaymentEvents.PaymentResult> recent;
+    private final Map<Long, CompletableFuture<PaymentEvents.PaymentResult>> inFlight = new ConcurrentHashMap<>();
+    private final Duration retention;
+    private final Counter replays;
+
+    public PaymentDedupeStore(MeterRegistry meterRegistry,
+                              @Value("${payment.dedupe.path:./data/payment-dedupe.mv.db}") String path,
+                              @Value("${payment.dedupe.cache-size:100000}") long cacheSize,
+                              @Value("${payment.dedupe.retention-days:7}") long retentionDays) throws IOException {
+        Path file = Path.of(path).toAbsolutePath();
+        Files.createDirectories(file.getParent());
+        this.store = new MVStore.Builder().fileName(file.toString()).compress().open();
+        this.decisions = store.openMap("payment-decisions");
+        this.recent = Caffeine.newBuilder().maximumSize(cacheSize).recordStats().build();
+        this.retention = Duration.ofDays(retentionDays);
+        this.replays = meterRegistry.counter("payment.dedupe.replays");
+        CaffeineCacheMetrics.monitor(meterRegistry, recent, "payment-dedupe");
+    }
+
+    // Returns the earlier decision for this order if there is one, otherwise decides once and records it
+    public PaymentEvents.PaymentResult resolve(Long orderId, Supplier<PaymentEvents.PaymentResult> decide) {
+        PaymentEvents.PaymentResult known = find(orderId);
+        if (known != null) {
+            replays.increment();
+            return known;
+        }
+
+        CompletableFuture<PaymentEvents.PaymentResult> mine = new CompletableFuture<>();
+        CompletableFuture<PaymentEvents.PaymentResult> running = inFlight.putIfAbsent(orderId, mine);
+        if (running != null) {
+            replays.increment();
+            return running.join();
+        }
+        try {
+            // Re-check: another delivery may have finished between find() and putIfAbsent()
+            PaymentEvents.PaymentResult result = find(orderId);
+            if (result == null) {
+                result = decide.get();
+                record(result);
+            }
+            mine.complete(result);
+            return result;
+        } catch (RuntimeException ex) {
+            mine.completeExceptionally(ex);
+            throw ex;
+        } finally {
+            inFlight.remove(orderId, mine);
+        }
+    }
+
+    private PaymentEvents.PaymentResult find(Long orderId) {
+        PaymentEvents.PaymentResult cached = recent.getIfPresent(orderId);
+        if (cached != null) {
+            return cached;
+        }
+        String stored = decisions.get(orderId);
+        if (stored == null) {
+            return null;
+        }
+        PaymentEvents.PaymentResult result = decode(orderId, stored);
+        recent.put(orderId, result);
+        return result;
+    }
+
+    private void record(PaymentEvents.PaymentResult result) {
+        decisions.put(result.orderId(), encode(result));
+        recent.put(result.orderId(), result);
+    }
+
+    // One chunk write for every decision recorded so far; called before any of their results leave this process
+    public void commit() {
+        store.commit();
+    }
+
+    // status|version|decidedAtMillis
+    private static String encode(PaymentEvents.PaymentResult result) {
+        return result.status() + "|" + result.version() + "|" + System.currentTimeMillis();
+    }
+
+    private static PaymentEvents.PaymentResult decode(Long orderId, String stored) {
+        String[] parts = stored.split("\\|");
+        return new PaymentEvents.PaymentResult(orderId, parts[0], Long.parseLong(parts[1]));
+    }
+
+    @Scheduled(fixedDelayString = "${payment.dedupe.cleanup-interval-ms:3600000}")
+    public void evictExpired() {
+        long cutoff = System.currentTimeMillis() - retention.toMillis();
+        decisions.entrySet().removeIf(entry -> Long.parseLong(entry.getValue().split("\\|")[2]) < cutoff);
+        store.commit();
+    }
+
+    @PreDestroy
+    public void close() {
+        store.close();
+    }
+}
@@ -0,0 +1,45 @@
+package com.mikro.payment.provider;
+
+import java.util.Locale;
+import java.util.random.RandomGenerator;
+
+// Simulated provider response times, in milliseconds
+public sealed interface LatencyDistribution {
+    long sampleMillis(RandomGenerator random);
+
+    record Fixed(long millis) implements LatencyDistribution {
+        public long sampleMillis(RandomGenerator random) {
+            return millis;
+        }
+    }
+
+    // Truncated at zero
+    record Normal(double meanMillis, double stddevMillis) implements LatencyDistribution {
+        public long sampleMillis(RandomGenerator random) {
+            return Math.max(0, Math.round(meanMillis + random.nextGaussian() * stddevMillis));
+        }
+    }
+
+    // Long tail: most calls near scaleMillis, a few far beyond it; a smaller shape means a heavier tail
+    record Pareto(double scaleMillis, double shape) implements LatencyDistribution {
+        public long sampleMillis(RandomGenerator random) {
+            double u = 1.0 - random.nextDouble(); // (0, 1]
+            return Math.round(scaleMillis / Math.pow(u, 1.0 / shape));
+        }
+    }
+
+    static LatencyDistribution of(String type, long fixedMillis, double meanMillis, double stddevMillis,
+                                  double paretoScaleMillis, double paretoShape) {
+        return switch (type.toLowerCase(Locale.ROOT)) {
+            case "fixed" -> new Fixed(fixedMillis);
+            case "normal" -> new Normal(meanMillis, stddevMillis);
+            case "pareto", "long-tail" -> {
+                if (paretoShape <= 0) {
+                    throw new IllegalArgumentException("Pareto shape must be positive: " + paretoShape);
+                }
+                yield new Pareto(paretoScaleMillis, paretoShape);
+            }
+            default -> throw new IllegalArgumentException("Unknown latency distribution: " + type);
+        };
+    }
+}
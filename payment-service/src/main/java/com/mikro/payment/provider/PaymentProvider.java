@@ -0,0 +1,16 @@
+package com.mikro.payment.provider;
+
+import com.mikro.payment.amqp.PaymentEvents;
+
+import java.util.concurrent.CompletableFuture;
+
+// SPI for whatever actually charges the customer. Implementations must not block the caller: the returned future
+// completes with the provider's decision, or exceptionally with a PaymentProviderException for transient trouble
+// (throttling, unavailability) so the request is retried instead of recorded.
+public interface PaymentProvider {
+    CompletableFuture<ChargeResult> charge(PaymentEvents.PaymentRequest request);
+
+    enum ChargeStatus { APPROVED, DECLINED }
+
+    record ChargeResult(ChargeStatus status, String reference) {}
+}
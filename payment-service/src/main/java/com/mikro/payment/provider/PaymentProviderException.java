@@ -0,0 +1,12 @@
+package com.mikro.payment.provider;
+
+// Transient provider failure; the payment request is requeued rather than decided
+public class PaymentProviderException extends RuntimeException {
+    public PaymentProviderException(String message) {
+        super(message);
+    }
+
+    public PaymentProviderException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
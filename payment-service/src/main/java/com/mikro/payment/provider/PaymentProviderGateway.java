@@ -0,0 +1,91 @@
+package com.mikro.payment.provider;
+
+import com.mikro.payment.amqp.PaymentEvents;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+// Bounded, asynchronous path to the provider. At most max-in-flight charges are outstanding; a consumer that cannot
+// get a slot within acquire-timeout-ms gives up and its request is requeued, so a slow provider pushes back on
+// the queue instead of piling up unbounded work. Every call is cut off after call-timeout-ms.
+@Component
+public class PaymentProviderGateway {
+    private final PaymentProvider provider;
+    private final Semaphore inFlight;
+    private final int maxInFlight;
+    private final long acquireTimeoutMs;
+    private final long callTimeoutMs;
+    private final MeterRegistry meterRegistry;
+
+    public PaymentProviderGateway(PaymentProvider provider,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${payment.provider.max-in-flight:256}") int maxInFlight,
+                                  @Value("${payment.provider.acquire-timeout-ms:1000}") long acquireTimeoutMs,
+                                  @Value("${payment.provider.call-timeout-ms:2000}") long callTimeoutMs) {
+        this.provider = provider;
+        this.inFlight = new Semaphore(maxInFlight);
+        this.maxInFlight = maxInFlight;
+        this.acquireTimeoutMs = acquireTimeoutMs;
+        this.callTimeoutMs = callTimeoutMs;
+        this.meterRegistry = meterRegistry;
+        meterRegistry.gauge("payment.provider.in-flight", inFlight, s -> this.maxInFlight - s.availablePermits());
+    }
+
+    public CompletableFuture<PaymentProvider.ChargeResult> charge(PaymentEvents.PaymentRequest request) {
+        if (!acquire()) {
+            meterRegistry.counter("payment.provider.rejected").increment();
+            return CompletableFuture.failedFuture(
+                new PaymentProviderException("No provider capacity for order " + request.orderId()));
+        }
+
+        Timer.Sample sample = Timer.start(meterRegistry);
+        CompletableFuture<PaymentProvider.ChargeResult> call;
+        try {
+            call = provider.charge(request);
+        } catch (RuntimeException ex) {
+            call = CompletableFuture.failedFuture(ex);
+        }
+        return call
+            .orTimeout(callTimeoutMs, TimeUnit.MILLISECONDS)
+            .handle((result, failure) -> {
+                inFlight.release();
+                sample.stop(meterRegistry.timer("payment.provider.latency", "outcome", outcome(result, failure)));
+                if (failure == null) {
+                    return result;
+                }
+                Throwable cause = failure instanceof CompletionException ? failure.getCause() : failure;
+                if (cause instanceof PaymentProviderException providerFailure) {
+                    throw providerFailure;
+                }
+                if (cause instanceof TimeoutException) {
+                    throw new PaymentProviderException("Provider did not answer for order " + request.orderId()
+                        + " within " + callTimeoutMs + "ms", cause);
+                }
+                throw new PaymentProviderException("Provider call failed for order " + request.orderId(), cause);
+            });
+    }
+
+    private boolean acquire() {
+        try {
+            return inFlight.tryAcquire(acquireTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private static String outcome(PaymentProvider.ChargeResult result, Throwable failure) {
+        if (failure == null) {
+            return result.status().name().toLowerCase();
+        }
+        Throwable cause = failure instanceof CompletionException ? failure.getCause() : failure;
+        return cause instanceof TimeoutException ? "timeout" : "error";
+    }
+}
@@ -0,0 +1,121 @@
+package com.mikro.payment.provider;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.mikro.payment.amqp.PaymentEvents;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.SplittableRandom;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.random.RandomGenerator;
+
+// Stand-in payment provider for load tests. Responses are delivered from a timer after a sampled latency, so
+// thousands of in-flight charges cost no threads. With a seed set, every outcome is a pure function of
+// (seed, orderId, attempt), so a run can be replayed exactly regardless of consumer concurrency.
+@Component
+@ConditionalOnProperty(name = "payment.provider.type", havingValue = "simulator", matchIfMissing = true)
+public class SimulatedPaymentProvider implements PaymentProvider {
+    private static final Logger log = LoggerFactory.getLogger(SimulatedPaymentProvider.class);
+    private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+
+    private final LatencyDistribution latency;
+    private final double failureRate;
+    private final double timeoutRate;
+    private final Long seed;
+    private final Throttle throttle;
+    private final ScheduledThreadPoolExecutor timer;
+    // Attempt number per order, so a redelivery after a simulated timeout draws a fresh outcome
+    private final Cache<Long, AtomicInteger> attempts = Caffeine.newBuilder()
+        .maximumSize(100_000)
+        .expireAfterAccess(Duration.ofMinutes(10))
+        .build();
+
+    public SimulatedPaymentProvider(@Value("${payment.provider.simulator.latency.distribution:fixed}") String distribution,
+                                    @Value("${payment.provider.simulator.latency.fixed-ms:50}") long fixedMs,
+                                    @Value("${payment.provider.simulator.latency.mean-ms:50}") double meanMs,
+                                    @Value("${payment.provider.simulator.latency.stddev-ms:15}") double stddevMs,
+                                    @Value("${payment.provider.simulator.latency.pareto-scale-ms:20}") double paretoScaleMs,
+                                    @Value("${payment.provider.simulator.latency.pareto-shape:1.5}") double paretoShape,
+                                    @Value("${payment.provider.simulator.failure-rate:0.10}") double failureRate,
+                                    @Value("${payment.provider.simulator.timeout-rate:0}") double timeoutRate,
+                                    @Value("${payment.provider.simulator.throttle.max-per-second:0}") int throttleMaxPerSecond,
+                                    @Value("${payment.provider.simulator.seed:}") Long seed) {
+        this.latency = LatencyDistribution.of(distribution, fixedMs, meanMs, stddevMs, paretoScaleMs, paretoShape);
+        this.failureRate = failureRate;
+        this.timeoutRate = timeoutRate;
+        this.seed = seed;
+        this.throttle = throttleMaxPerSecond > 0 ? new Throttle(throttleMaxPerSecond) : null;
+        this.timer = new ScheduledThreadPoolExecutor(1, Thread.ofPlatform().name("payment-provider-sim").daemon().factory());
+        this.timer.setRemoveOnCancelPolicy(true);
+        log.info("Payment provider simulator: latency={}, failureRate={}, timeoutRate={}, throttle={}/s, seed={}",
+            latency, failureRate, timeoutRate, throttleMaxPerSecond, seed);
+    }
+
+    @Override
+    public CompletableFuture<ChargeResult> charge(PaymentEvents.PaymentRequest request) {
+        CompletableFuture<ChargeResult> response = new CompletableFuture<>();
+        if (throttle != null && !throttle.tryAcquire()) {
+            // A real provider answers 429 right away
+            response.completeExceptionally(new PaymentProviderException("Provider throttled order " + request.orderId()));
+            return response;
+        }
+
+        RandomGenerator random = randomFor(request.orderId());
+        long delayMs = latency.sampleMillis(random);
+        double roll = random.nextDouble();
+        if (roll < timeoutRate) {
+            // Never answers; the caller's timeout decides what happens
+            return response;
+        }
+        ChargeStatus status = roll < timeoutRate + failureRate ? ChargeStatus.DECLINED : ChargeStatus.APPROVED;
+        String reference = "sim-" + request.orderId() + "-" + Long.toHexString(random.nextLong());
+        timer.schedule(() -> response.complete(new ChargeResult(status, reference)), delayMs, TimeUnit.MILLISECONDS);
+        return response;
+    }
+
+    private RandomGenerator randomFor(Long orderId) {
+        if (seed == null) {
+            return ThreadLocalRandom.current();
+        }
+        int attempt = attempts.get(orderId, id -> new AtomicInteger()).incrementAndGet();
+        return new SplittableRandom(seed ^ (orderId * GOLDEN_GAMMA) ^ ((long) attempt << 32));
+    }
+
+    @PreDestroy
+    void shutdown() {
+        timer.shutdownNow();
+    }
+
+    // Token bucket refilled continuously at maxPerSecond, holding at most one second's worth
+    private static final class Throttle {
+        private final double maxPerSecond;
+        private double tokens;
+        private long lastRefillNanos = System.nanoTime();
+
+        Throttle(int maxPerSecond) {
+            this.maxPerSecond = maxPerSecond;
+            this.tokens = maxPerSecond;
+        }
+
+        synchronized boolean tryAcquire() {
+            long now = System.nanoTime();
+            tokens = Math.min(maxPerSecond, tokens + (now - lastRefillNanos) * maxPerSecond / 1_000_000_000.0);
+            lastRefillNanos = now;
+            if (tokens < 1) {
+                return false;
+            }
+            tokens--;
+            return true;
+        }
+    }
+}
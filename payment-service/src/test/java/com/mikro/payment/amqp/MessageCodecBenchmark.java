@@ -0,0 +1,103 @@
+package com.mikro.payment.amqp;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
+import org.springframework.amqp.support.converter.MessageConverter;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Encode/decode cost and wire size of a payment request for three codecs: the previous JSON converter with
+// class-name __TypeId__ headers, and the current converter writing JSON or CBOR with logical type ids.
+//   mvn test -Dgroups=benchmark -DexcludedGroups=none -Dtest=MessageCodecBenchmark
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class MessageCodecBenchmark {
+    private static final PaymentEvents.PaymentRequest REQUEST =
+        new PaymentEvents.PaymentRequest(1_234_567_890L, new BigDecimal("1249.90"));
+
+    @Param({"legacy-json", "json", "cbor"})
+    public String codec;
+
+    private MessageConverter converter;
+    private Message encoded;
+
+    @Setup
+    public void setUp() {
+        converter = converter(codec);
+        encoded = converter.toMessage(REQUEST, new MessageProperties());
+    }
+
+    @Benchmark
+    public Message encode() {
+        return converter.toMessage(REQUEST, new MessageProperties());
+    }
+
+    @Benchmark
+    public Object decode() {
+        return converter.fromMessage(encoded);
+    }
+
+    static MessageConverter converter(String codec) {
+        return switch (codec) {
+            case "legacy-json" -> new Jackson2JsonMessageConverter(PaymentEvents.class.getPackageName());
+            case "json", "cbor" -> new RabbitCodecConfig().messageConverter(codec);
+            default -> throw new IllegalArgumentException(codec);
+        };
+    }
+
+    // Body plus the headers the codec adds; what the broker stores and moves per message
+    static int wireSize(Message message) {
+        int size = message.getBody().length;
+        MessageProperties properties = message.getMessageProperties();
+        if (properties.getContentType() != null) {
+            size += properties.getContentType().length();
+        }
+        for (Map.Entry<String, Object> header : properties.getHeaders().entrySet()) {
+            size += header.getKey().length() + String.valueOf(header.getValue()).getBytes(StandardCharsets.UTF_8).length;
+        }
+        return size;
+    }
+
+    @Test
+    @Tag("benchmark")
+    void run() throws Exception {
+        for (String codec : new String[] {"legacy-json", "json", "cbor"}) {
+            MessageConverter converter = converter(codec);
+            Message message = converter.toMessage(REQUEST, new MessageProperties());
+            PaymentEvents.PaymentRequest decoded = (PaymentEvents.PaymentRequest) converter.fromMessage(message);
+            assertThat(decoded.orderId()).isEqualTo(REQUEST.orderId());
+            assertThat(decoded.amount()).isEqualByComparingTo(REQUEST.amount());
+            System.out.printf("%-12s body=%d bytes  body+headers=%d bytes%n",
+                codec, message.getBody().length, wireSize(message));
+        }
+        // Not forked: surefire's manifest-only classpath does not carry over to a forked JVM
+        new Runner(new OptionsBuilder()
+            .include(MessageCodecBenchmark.class.getName() + "\\.")
+            .forks(0)
+            .build())
+            .run();
+    }
+}
@@ -0,0 +1,91 @@
+package com.mikro.payment.amqp;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PartitionAssignmentTest {
+    private static final int PARTITIONS = 256;
+
+    @Test
+    void everyInstanceComputesTheSameOwners() {
+        List<String> instances = instances(5);
+        Set<String> sorted = new TreeSet<>(instances);
+        Set<String> reversed = new LinkedHashSet<>(instances.reversed());
+
+        assertThat(owners(reversed)).isEqualTo(owners(sorted));
+    }
+
+    @Test
+    void aJoiningInstanceOnlyTakesPartitionsForItself() {
+        Set<String> before = new TreeSet<>(instances(4));
+        Set<String> after = new TreeSet<>(before);
+        after.add("10.0.0.99:payment-service:8080");
+
+        Map<Integer, String> ownersBefore = owners(before);
+        Map<Integer, String> ownersAfter = owners(after);
+
+        List<Integer> moved = movedPartitions(ownersBefore, ownersAfter);
+        assertThat(moved).isNotEmpty();
+        assertThat(moved).allMatch(partition -> ownersAfter.get(partition).equals("10.0.0.99:payment-service:8080"));
+    }
+
+    @Test
+    void aLeavingInstanceOnlyGivesUpItsOwnPartitions() {
+        Set<String> before = new TreeSet<>(instances(4));
+        String leaving = before.iterator().next();
+        Set<String> after = new TreeSet<>(before);
+        after.remove(leaving);
+
+        Map<Integer, String> ownersBefore = owners(before);
+        Map<Integer, String> ownersAfter = owners(after);
+
+        assertThat(movedPartitions(ownersBefore, ownersAfter))
+            .containsExactlyInAnyOrderElementsOf(partitionsOf(ownersBefore, leaving));
+    }
+
+    @Test
+    void partitionsAreSpreadOverAllInstances() {
+        Set<String> members = new TreeSet<>(instances(4));
+
+        Map<String, Long> perInstance = owners(members).values().stream()
+            .collect(Collectors.groupingBy(owner -> owner, Collectors.counting()));
+
+        assertThat(perInstance).hasSize(4);
+        assertThat(perInstance.values()).allMatch(count -> count >= PARTITIONS / 8 && count <= PARTITIONS / 2);
+    }
+
+    @Test
+    void aSingleInstanceOwnsEverything() {
+        assertThat(owners(Set.of("only")).values()).containsOnly("only");
+    }
+
+    private static List<String> instances(int count) {
+        return IntStream.rangeClosed(1, count).mapToObj(i -> "10.0.0." + i + ":payment-service:8080").toList();
+    }
+
+    private static Map<Integer, String> owners(Set<String> members) {
+        Map<Integer, String> owners = new HashMap<>();
+        for (int partition = 0; partition < PARTITIONS; partition++) {
+            owners.put(partition, PartitionAssignment.owner(members, partition));
+        }
+        return owners;
+    }
+
+    private static List<Integer> movedPartitions(Map<Integer, String> before, Map<Integer, String> after) {
+        return before.keySet().stream().filter(partition -> !before.get(partition).equals(after.get(partition))).toList();
+    }
+
+    private static List<Integer> partitionsOf(Map<Integer, String> owners, String member) {
+        return owners.entrySet().stream().filter(entry -> entry.getValue().equals(member)).map(Map.Entry::getKey).toList();
+    }
+}
@@ -0,0 +1,187 @@
+package com.mikro.payment.amqp;
+
+import com.mikro.payment.dedupe.PaymentDedupeStore;
+import com.mikro.payment.provider.PaymentProvider;
+import com.mikro.payment.provider.PaymentProviderGateway;
+import com.rabbitmq.client.ConfirmCallback;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Payment consumer throughput without a broker: deliveries come from an in-memory queue and publishes go to a
+// RabbitTemplate stand-in where every confirm wait costs one simulated broker round trip. Compares the previous
+// one-at-a-time consumer (one publish round trip per message) with the concurrent consumers on virtual threads
+// and the batch-confirming PaymentResultPublisher. Both report messages per second.
+//   mvn test -Dgroups=benchmark -DexcludedGroups=none -Dtest=PaymentConsumerThroughputBenchmark
+// Optional: -Dbench.consumers (64), -Dbench.provider-latency-ms (5), -Dbench.round-trip-us (500)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+public class PaymentConsumerThroughputBenchmark {
+    // Deliveries drained by the concurrent consumers per invocation
+    private static final int BATCH = 2000;
+    private static final int CONSUMERS = Integer.getInteger("bench.consumers", 64);
+    private static final long PROVIDER_LATENCY_MS = Long.getLong("bench.provider-latency-ms", 5);
+    private static final long ROUND_TRIP_NANOS = TimeUnit.MICROSECONDS.toNanos(Long.getLong("bench.round-trip-us", 500));
+
+    @State(Scope.Benchmark)
+    public static class OneAtATime {
+        InProcessBroker broker;
+        PaymentProvider provider;
+        long nextOrderId;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            broker = new InProcessBroker();
+            provider = delayedProvider();
+            nextOrderId = 0;
+        }
+
+        @TearDown(Level.Trial)
+        public void checkPublished() {
+            assertThat(broker.published.sum()).isEqualTo(nextOrderId);
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class Concurrent {
+        Path dataDir;
+        InProcessBroker broker;
+        PaymentDedupeStore dedupeStore;
+        PaymentResultPublisher publisher;
+        PaymentListener listener;
+        long nextOrderId;
+
+        @Setup(Level.Trial)
+        public void setUp() throws IOException {
+            dataDir = Files.createTempDirectory("payment-bench");
+            broker = new InProcessBroker();
+            SimpleMeterRegistry registry = new SimpleMeterRegistry();
+            PaymentPartitions partitions = new PaymentPartitions(0, "payment.requests", "payment.results", "payments.request");
+            dedupeStore = new PaymentDedupeStore(registry, dataDir.resolve("dedupe.mv.db").toString(), 100_000, 7);
+            publisher = new PaymentResultPublisher(broker, dedupeStore, registry, partitions, 100, 5, 5000);
+            PaymentProviderGateway gateway = new PaymentProviderGateway(delayedProvider(), registry, 256, 1000, 2000);
+            listener = new PaymentListener(publisher, dedupeStore, gateway);
+            nextOrderId = 0;
+            publisher.start();
+        }
+
+        @TearDown(Level.Trial)
+        public void stopAndCheckPublished() throws IOException, InterruptedException {
+            publisher.stop();
+            dedupeStore.close();
+            assertThat(broker.published.sum()).isEqualTo(nextOrderId);
+            try (Stream<Path> files = Files.walk(dataDir)) {
+                files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+            }
+        }
+    }
+
+    @Benchmark
+    public void oneAtATime(OneAtATime state) {
+        PaymentEvents.PaymentRequest request = new PaymentEvents.PaymentRequest(++state.nextOrderId, BigDecimal.TEN);
+        PaymentProvider.ChargeResult outcome = state.provider.charge(request).join();
+        String status = outcome.status() == PaymentProvider.ChargeStatus.APPROVED ? "PAID" : "FAILED";
+        state.broker.convertAndSend("payment.results", new PaymentEvents.PaymentResult(request.orderId(), status, 1));
+        state.broker.waitForConfirmsOrDie(5000);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public void concurrentBatched(Concurrent state) throws Exception {
+        BlockingQueue<PaymentEvents.PaymentRequest> deliveries = new LinkedBlockingQueue<>();
+        for (int i = 0; i < BATCH; i++) {
+            deliveries.add(new PaymentEvents.PaymentRequest(++state.nextOrderId, BigDecimal.TEN));
+        }
+        try (ExecutorService consumers = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<?>> running = new ArrayList<>(CONSUMERS);
+            for (int i = 0; i < CONSUMERS; i++) {
+                running.add(consumers.submit(() -> {
+                    PaymentEvents.PaymentRequest request;
+                    while ((request = deliveries.poll()) != null) {
+                        state.listener.onPaymentRequest(request);
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> consumer : running) {
+                consumer.get();
+            }
+        }
+    }
+
+    // Answers every charge after a fixed delay without holding a thread
+    private static PaymentProvider delayedProvider() {
+        return request -> CompletableFuture.supplyAsync(
+            () -> new PaymentProvider.ChargeResult(PaymentProvider.ChargeStatus.APPROVED, "bench-" + request.orderId()),
+            CompletableFuture.delayedExecutor(PROVIDER_LATENCY_MS, TimeUnit.MILLISECONDS));
+    }
+
+    // Publishes are only counted; a confirm wait parks for one broker round trip
+    static final class InProcessBroker extends RabbitTemplate {
+        private final LongAdder published = new LongAdder();
+
+        @Override
+        public void convertAndSend(String routingKey, Object object) {
+            published.increment();
+        }
+
+        @Override
+        public void waitForConfirmsOrDie(long timeout) {
+            LockSupport.parkNanos(ROUND_TRIP_NANOS);
+        }
+
+        @Override
+        public <T> T invoke(OperationsCallback<T> action, ConfirmCallback acks, ConfirmCallback nacks) {
+            return action.doInRabbit(this);
+        }
+    }
+
+    // Not forked: surefire's manifest-only classpath does not carry over to a forked JVM
+    @Test
+    @Tag("benchmark")
+    void run() throws Exception {
+        new Runner(new OptionsBuilder()
+            .include(PaymentConsumerThroughputBenchmark.class.getName() + "\\.")
+            .shouldFailOnError(true)
+            .forks(0)
+            .build())
+            .run();
+    }
+}
@@ -0,0 +1,57 @@
+package com.mikro.payment.provider;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.SplittableRandom;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+class LatencyDistributionTest {
+
+    @Test
+    void fixedAlwaysReturnsItsValue() {
+        LatencyDistribution fixed = LatencyDistribution.of("fixed", 42, 0, 0, 0, 1);
+
+        assertThat(fixed).isEqualTo(new LatencyDistribution.Fixed(42));
+        assertThat(samples(fixed, 1, 100)).containsOnly(42L);
+    }
+
+    @Test
+    void normalIsTruncatedAtZero() {
+        LatencyDistribution normal = LatencyDistribution.of("NORMAL", 0, 1, 100, 0, 1);
+
+        assertThat(normal).isInstanceOf(LatencyDistribution.Normal.class);
+        assertThat(LongStream.of(samples(normal, 7, 10_000)).min().orElseThrow()).isZero();
+    }
+
+    @Test
+    void paretoNeverGoesBelowItsScaleAndHasALongTail() {
+        LatencyDistribution pareto = LatencyDistribution.of("long-tail", 0, 0, 0, 20, 1.5);
+
+        long[] samples = samples(pareto, 11, 10_000);
+
+        assertThat(LongStream.of(samples).min().orElseThrow()).isGreaterThanOrEqualTo(20);
+        // P(X > 10 * scale) = 10^-1.5, about 3% of samples
+        assertThat(LongStream.of(samples).filter(millis -> millis > 200).count()).isBetween(100L, 700L);
+    }
+
+    @Test
+    void sameSeedGivesTheSameSamples() {
+        LatencyDistribution pareto = new LatencyDistribution.Pareto(20, 1.5);
+
+        assertThat(samples(pareto, 99, 1000)).containsExactly(samples(pareto, 99, 1000));
+    }
+
+    @Test
+    void rejectsUnknownTypesAndNonPositiveShapes() {
+        assertThatIllegalArgumentException().isThrownBy(() -> LatencyDistribution.of("uniform", 0, 0, 0, 0, 1));
+        assertThatIllegalArgumentException().isThrownBy(() -> LatencyDistribution.of("pareto", 0, 0, 0, 20, 0));
+    }
+
+    private static long[] samples(LatencyDistribution distribution, long seed, int count) {
+        SplittableRandom random = new SplittableRandom(seed);
+        return LongStream.range(0, count).map(i -> distribution.sampleMillis(random)).toArray();
+    }
+}
@@ -0,0 +1,89 @@
+package com.mikro.payment.provider;
+
+import com.mikro.payment.amqp.PaymentEvents;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SimulatedPaymentProviderTest {
+    private final List<SimulatedPaymentProvider> providers = new ArrayList<>();
+
+    @AfterEach
+    void shutdown() {
+        providers.forEach(SimulatedPaymentProvider::shutdown);
+    }
+
+    @Test
+    void seededRunsReplayExactly() {
+        SimulatedPaymentProvider first = provider(0.3, 0, 0, 1234L);
+        SimulatedPaymentProvider second = provider(0.3, 0, 0, 1234L);
+
+        List<PaymentProvider.ChargeResult> firstRun = chargeAll(first);
+        List<PaymentProvider.ChargeResult> secondRun = chargeAll(second);
+
+        assertThat(firstRun).isEqualTo(secondRun);
+        assertThat(firstRun).extracting(PaymentProvider.ChargeResult::status)
+            .contains(PaymentProvider.ChargeStatus.APPROVED, PaymentProvider.ChargeStatus.DECLINED);
+    }
+
+    @Test
+    void differentSeedsGiveDifferentRuns() {
+        assertThat(chargeAll(provider(0.3, 0, 0, 1L))).isNotEqualTo(chargeAll(provider(0.3, 0, 0, 2L)));
+    }
+
+    @Test
+    void aRetriedOrderDrawsAFreshOutcome() {
+        SimulatedPaymentProvider provider = provider(0.5, 0, 0, 1234L);
+
+        PaymentProvider.ChargeResult firstAttempt = provider.charge(request(7)).join();
+        PaymentProvider.ChargeResult secondAttempt = provider.charge(request(7)).join();
+
+        assertThat(secondAttempt.reference()).isNotEqualTo(firstAttempt.reference());
+    }
+
+    @Test
+    void timedOutChargesNeverComplete() throws InterruptedException {
+        CompletableFuture<PaymentProvider.ChargeResult> charge = provider(0, 1.0, 0, 1234L).charge(request(1));
+
+        TimeUnit.MILLISECONDS.sleep(50);
+
+        assertThat(charge).isNotDone();
+    }
+
+    @Test
+    void throttledChargesFailRightAway() {
+        SimulatedPaymentProvider provider = provider(0, 0, 1, 1234L);
+
+        assertThat(provider.charge(request(1)).join().status()).isNotNull();
+        CompletableFuture<PaymentProvider.ChargeResult> throttled = provider.charge(request(2));
+
+        assertThat(throttled).isCompletedExceptionally();
+        assertThatThrownBy(throttled::join).hasCauseInstanceOf(PaymentProviderException.class);
+    }
+
+    private List<PaymentProvider.ChargeResult> chargeAll(SimulatedPaymentProvider provider) {
+        return LongStream.rangeClosed(1, 200)
+            .mapToObj(orderId -> provider.charge(request(orderId)).join())
+            .toList();
+    }
+
+    private SimulatedPaymentProvider provider(double failureRate, double timeoutRate, int throttlePerSecond, Long seed) {
+        SimulatedPaymentProvider provider = new SimulatedPaymentProvider(
+            "fixed", 0, 0, 0, 20, 1.5, failureRate, timeoutRate, throttlePerSecond, seed);
+        providers.add(provider);
+        return provider;
+    }
+
+    private static PaymentEvents.PaymentRequest request(long orderId) {
+        return new PaymentEvents.PaymentRequest(orderId, BigDecimal.TEN);
+    }
+}
@@ -0,0 +1,19 @@
+package com.mikro.product.amqp;
+
+import com.mikro.product.cache.ProductCache;
+import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.stereotype.Component;
+
+@Component
+public class ProductChangedListener {
+    private final ProductCache productCache;
+
+    public ProductChangedListener(ProductCache productCache) {
+        this.productCache = productCache;
+    }
+
+    @RabbitListener(queues = "#{productEventsQueue.name}")
+    public void onProductChanged(ProductEvents.ProductChanged event) {
+        productCache.evict(event.productId());
+    }
+}
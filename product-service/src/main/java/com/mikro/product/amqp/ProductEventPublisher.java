@@ -0,0 +1,63 @@
+package com.mikro.product.amqp;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.core.AmqpTemplate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+@Component
+public class ProductEventPublisher {
+    private static final Logger log = LoggerFactory.getLogger(ProductEventPublisher.class);
+
+    private final AmqpTemplate amqpTemplate;
+    private final String exchange;
+    private final String routingKey;
+
+    public ProductEventPublisher(AmqpTemplate amqpTemplate,
+                                 @Value("${amqp.productExchange}") String exchange,
+                                 @Value("${amqp.productChangedRoutingKey}") String routingKey) {
+        this.amqpTemplate = amqpTemplate;
+        this.exchange = exchange;
+        this.routingKey = routingKey;
+    }
+
+    public void productUpdated(Long productId) {
+        publish(new ProductEvents.ProductChanged(productId, "UPDATED"));
+    }
+
+    // Only the stock column moved; consumers may keep name and price data
+    public void stockChanged(Long productId) {
+        publish(new ProductEvents.ProductChanged(productId, ProductEvents.STOCK_CHANGED));
+    }
+
+    public void productDeleted(Long productId) {
+        publish(new ProductEvents.ProductChanged(productId, "DELETED"));
+    }
+
+    // Consumers only invalidate caches, so an event is sent once the change is committed
+    private void publish(ProductEvents.ProductChanged event) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    send(event);
+                }
+            });
+        } else {
+            send(event);
+        }
+    }
+
+    private void send(ProductEvents.ProductChanged event) {
+        try {
+            amqpTemplate.convertAndSend(exchange, routingKey, event);
+        } catch (AmqpException ex) {
+            // Caches fall back to their TTL when an invalidation is lost
+            log.warn("Could not publish {} for product {}: {}", event.type(), event.productId(), ex.getMessage());
+        }
+    }
+}
@@ -0,0 +1,7 @@
+package com.mikro.product.amqp;
+
+public class ProductEvents {
+    public static final String STOCK_CHANGED = "STOCK_CHANGED";
+
+    public record ProductChanged(Long productId, String type) {}
+}
@@ -0,0 +1,115 @@
+package com.mikro.product.cache;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.mikro.product.domain.Product;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Supplier;
+
+// Local, version-aware cache of products with their serialized JSON body. Writes on this instance
+// evict after commit; writes on other instances arrive as ProductChanged events, and the TTL bounds
+// anything that slips through (e.g. stock reservations handled elsewhere).
+// Every evict bumps an invalidation generation (striped by id). A reader stores what it loaded only if
+// the generation is unchanged since before the load, so a row read before a commit cannot be cached
+// after that commit's evict.
+@Component
+public class ProductCache {
+    private static final int GENERATION_STRIPES = 4096;
+
+    private final Cache<Long, CachedProduct> cache;
+    private final ObjectMapper objectMapper;
+    private final AtomicLongArray generations = new AtomicLongArray(GENERATION_STRIPES);
+
+    public ProductCache(ObjectMapper objectMapper,
+                        MeterRegistry meterRegistry,
+                        @Value("${product.cache.max-size:50000}") long maxSize,
+                        @Value("${product.cache.ttl-ms:10000}") long ttlMs) {
+        this.objectMapper = objectMapper;
+        this.cache = Caffeine.newBuilder()
+            .maximumSize(maxSize)
+            .expireAfterWrite(Duration.ofMillis(ttlMs))
+            .recordStats()
+            .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "product-cache");
+    }
+
+    public Optional<CachedProduct> get(Long id, Supplier<Optional<Product>> loader) {
+        CachedProduct cached = cache.getIfPresent(id);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+        int stripe = stripe(id);
+        long generation = generations.get(stripe);
+        return loader.get().map(product -> {
+            CachedProduct loaded = new CachedProduct(product, product.getVersion(), product.getUpdatedAt(), serialize(product));
+            CachedProduct[] result = {loaded};
+            cache.asMap().compute(id, (key, existing) -> {
+                if (generations.get(stripe) != generation) {
+                    // Evicted while loading: the row may predate that write, serve it once without storing it
+                    return existing;
+                }
+                // Never replace a newer version that a concurrent reader already stored
+                if (existing != null && existing.version() > loaded.version()) {
+                    result[0] = existing;
+                    return existing;
+                }
+                return loaded;
+            });
+            return result[0];
+        });
+    }
+
+    public void evict(Long id) {
+        invalidate(id);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            // Evict again once committed so a read racing the transaction cannot keep the old row
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    invalidate(id);
+                }
+            });
+        }
+    }
+
+    // Generation first: a reader checking it inside compute either sees the bump or is removed right after
+    private void invalidate(Long id) {
+        generations.incrementAndGet(stripe(id));
+        cache.invalidate(id);
+    }
+
+    private static int stripe(Long id) {
+        return (int) (Long.hashCode(id) & (GENERATION_STRIPES - 1));
+    }
+
+    public byte[] serialize(Product product) {
+        try {
+            return objectMapper.writeValueAsBytes(product);
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("Could not serialize product " + product.getId(), ex);
+        }
+    }
+
+    public record CachedProduct(Product product, long version, Instant updatedAt, byte[] body) {
+        public String etag() {
+            return "\"" + product.getId() + "-" + version + "\"";
+        }
+
+        // Hot-SKU stock lives in memory and changes without a version bump
+        public String etag(int stock) {
+            return "\"" + product.getId() + "-" + version + "-" + stock + "\"";
+        }
+    }
+}
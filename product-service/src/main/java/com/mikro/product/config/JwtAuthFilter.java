@@ -1,56 +1,54 @@
 package com.mikro.product.config;
 
-import io.jsonwebtoken.Claims;
-import io.jsonwebtoken.Jwts;
-import io.jsonwebtoken.security.Keys;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
-import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
-import java.nio.charset.StandardCharsets;
-import java.util.List;
 
 @Component
 public class JwtAuthFilter extends OncePerRequestFilter {
+    private final JwtVerifier jwtVerifier;
+    private final IdentityHeaderVerifier identityHeaderVerifier;
+    private final WebAuthenticationDetailsSource detailsSource = new WebAuthenticationDetailsSource();
 
-    @Value("${jwt.secret}")
-    private String secret;
+    public JwtAuthFilter(JwtVerifier jwtVerifier, IdentityHeaderVerifier identityHeaderVerifier) {
+        this.jwtVerifier = jwtVerifier;
+        this.identityHeaderVerifier = identityHeaderVerifier;
+    }
 
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
         throws ServletException, IOException {
 
+        // Prefer the identity the gateway already verified; parse the JWT only when it is missing or invalid
+        String identity = request.getHeader(IdentityHeaderVerifier.HEADER);
+        JwtVerifier.VerifiedToken verified = identity != null
+            ? identityHeaderVerifier.verify(identity).orElse(null)
+            : null;
+
         String header = request.getHeader("Authorization");
-        if (header != null && header.startsWith("Bearer ")) {
+        if (verified == null && header != null && header.startsWith("Bearer ")) {
             String token = header.substring(7);
             try {
-                Claims claims = Jwts.parser()
-                    .verifyWith(Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8)))
-                    .build()
-                    .parseSignedClaims(token)
-                    .getPayload();
-
-                String username = claims.getSubject();
-                String role = String.valueOf(claims.getOrDefault("role", "ROLE_USER"));
-                var auth = new UsernamePasswordAuthenticationToken(
-                    username, null, List.of(new SimpleGrantedAuthority(role))
-                );
-                auth.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
-                SecurityContextHolder.getContext().setAuthentication(auth);
+                verified = jwtVerifier.verify(token);
             } catch (Exception ignored) {
             }
         }
+
+        if (verified != null) {
+            var auth = new UsernamePasswordAuthenticationToken(
+                verified.username(), null, verified.authorities()
+            );
+            auth.setDetails(detailsSource.buildDetails(request));
+            SecurityContextHolder.getContext().setAuthentication(auth);
+        }
         filterChain.doFilter(request, response);
     }
 }
-
-
@@ -0,0 +1,106 @@
+package com.mikro.product.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Date;
+import java.util.List;
+
+// Verifies bearer tokens with a parser built once, and remembers verified tokens until they expire
+// so repeat requests with the same token skip the HMAC check and claim parsing.
+@Component
+public class JwtVerifier {
+    private final JwtParser parser;
+    private final Cache<String, VerifiedToken> verified;
+    private final long maxTtlNanos;
+
+    public JwtVerifier(@Value("${jwt.secret}") String secret,
+                       @Value("${jwt.cache.max-size:10000}") long maxSize,
+                       @Value("${jwt.cache.max-ttl-ms:300000}") long maxTtlMs,
+                       MeterRegistry meterRegistry) {
+        this.parser = Jwts.parser()
+            .verifyWith(Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8)))
+            .build();
+        this.maxTtlNanos = Duration.ofMillis(maxTtlMs).toNanos();
+        this.verified = Caffeine.newBuilder()
+            .maximumSize(maxSize)
+            .expireAfter(new Expiry<String, VerifiedToken>() {
+                @Override
+                public long expireAfterCreate(String key, VerifiedToken token, long currentTime) {
+                    // Never outlive the token's own exp
+                    if (token.expiresAt() == null) {
+                        return maxTtlNanos;
+                    }
+                    long untilExp = Duration.between(Instant.now(), token.expiresAt()).toNanos();
+                    return Math.max(0, Math.min(untilExp, maxTtlNanos));
+                }
+
+                @Override
+                public long expireAfterUpdate(String key, VerifiedToken token, long currentTime, long currentDuration) {
+                    return currentDuration;
+                }
+
+                @Override
+                public long expireAfterRead(String key, VerifiedToken token, long currentTime, long currentDuration) {
+                    return currentDuration;
+                }
+            })
+            .recordStats()
+            .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, verified, "jwt-verified-tokens");
+    }
+
+    // Throws JwtException (or IllegalArgumentException for blank input) when the token is not valid
+    public VerifiedToken verify(String token) {
+        String key = digest(token);
+        VerifiedToken cached = verified.getIfPresent(key);
+        if (cached != null && (cached.expiresAt() == null || cached.expiresAt().isAfter(Instant.now()))) {
+            return cached;
+        }
+
+        Claims claims = parser.parseSignedClaims(token).getPayload();
+        // Refresh tokens are never bearer credentials, even ones signed with the access key
+        if ("refresh".equals(claims.get("type"))) {
+            throw new JwtException("Refresh token used as an access token");
+        }
+        String role = String.valueOf(claims.getOrDefault("role", "ROLE_USER"));
+        Date exp = claims.getExpiration();
+        VerifiedToken result = new VerifiedToken(
+            claims.getSubject(),
+            List.of(new SimpleGrantedAuthority(role)),
+            exp != null ? exp.toInstant() : null
+        );
+        verified.put(key, result);
+        return result;
+    }
+
+    // Keyed by a digest so the cache never holds usable bearer tokens
+    private static String digest(String token) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(hash);
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("SHA-256 not available", ex);
+        }
+    }
+
+    public record VerifiedToken(String username, List<GrantedAuthority> authorities, Instant expiresAt) {}
+}
@@ -1,12 +1,18 @@
 package com.mikro.product.domain;
 
 import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 public interface ProductRepository extends JpaRepository<Product, Long> {
@@ -14,10 +20,63 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
     @Lock(LockModeType.PESSIMISTIC_WRITE)
     @Query("SELECT p FROM Product p WHERE p.id = :id")
     Optional<Product> findByIdWithLock(@Param("id") Long id);
+
+    // Rows are locked in ID order so concurrent multi-item reservations cannot deadlock
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT p FROM Product p WHERE p.id IN :ids ORDER BY p.id")
+    List<Product> findAllByIdWithLock(@Param("ids") Collection<Long> ids);
     
+    // Guarded decrement and re-read in a single statement; empty when the product is missing or short on stock
+    @Transactional
+    @Query(value = "UPDATE products SET stock = stock - :quantity, version = version + 1, updated_at = now() "
+                 + "WHERE id = :id AND stock >= :quantity RETURNING *",
+           nativeQuery = true)
+    Optional<Product> decrementStock(@Param("id") Long id, @Param("quantity") int quantity);
+
+    @Query("SELECT p.stock FROM Product p WHERE p.id = :id")
+    Optional<Integer> findStockById(@Param("id") Long id);
+
+    // Write-behind of hot-product deltas from HotStockLedger
     @Modifying
-    @Query("UPDATE Product p SET p.stock = p.stock - :quantity WHERE p.id = :id AND p.stock >= :quantity")
-    int reduceStock(@Param("id") Long id, @Param("quantity") int quantity);
-}
+    @Query("UPDATE Product p SET p.stock = p.stock - :delta, p.version = p.version + 1, p.updatedAt = :now WHERE p.id = :id")
+    int applyStockDelta(@Param("id") Long id, @Param("delta") int delta, @Param("now") Instant now);
 
+    // Keyset scrolling: each page seeks past the last (sort key, id) served, so deep pages cost the same as the first.
+    // Backed by the primary key and the (price, id) / (name, id) indexes in db-init/add-indexes.sql.
+    @Query("SELECT new com.mikro.product.domain.ProductSummary(p.id, p.name, p.price, p.stock) FROM Product p "
+         + "WHERE p.id > :afterId ORDER BY p.id")
+    List<ProductSummary> scrollById(@Param("afterId") long afterId, Limit limit);
 
+    @Query("SELECT new com.mikro.product.domain.ProductSummary(p.id, p.name, p.price, p.stock) FROM Product p "
+         + "WHERE (p.name, p.id) > (:afterName, :afterId) ORDER BY p.name, p.id")
+    List<ProductSummary> scrollByName(@Param("afterName") String afterName, @Param("afterId") long afterId, Limit limit);
+
+    @Query("SELECT new com.mikro.product.domain.ProductSummary(p.id, p.name, p.price, p.stock) FROM Product p "
+         + "WHERE p.price IS NOT NULL ORDER BY p.price, p.id")
+    List<ProductSummary> firstByPrice(Limit limit);
+
+    @Query("SELECT new com.mikro.product.domain.ProductSummary(p.id, p.name, p.price, p.stock) FROM Product p "
+         + "WHERE (p.price, p.id) > (:afterPrice, :afterId) ORDER BY p.price, p.id")
+    List<ProductSummary> scrollByPrice(@Param("afterPrice") BigDecimal afterPrice, @Param("afterId") long afterId, Limit limit);
+
+    // Unpriced products trail the priced ones, ordered by id
+    @Query("SELECT new com.mikro.product.domain.ProductSummary(p.id, p.name, p.price, p.stock) FROM Product p "
+         + "WHERE p.price IS NULL AND p.id > :afterId ORDER BY p.id")
+    List<ProductSummary> scrollUnpriced(@Param("afterId") long afterId, Limit limit);
+
+    // Ranked full-text match through idx_products_name_search; the tsvector expression must match the index exactly.
+    // Keyset on (rank desc, id asc): pass Float.MAX_VALUE and 0 for the first page.
+    @Query(value = "SELECT r.id, r.name, r.price, r.stock, r.rank FROM ("
+                 + "  SELECT p.id, p.name, p.price, p.stock, ts_rank(to_tsvector('english', p.name), q) AS rank"
+                 + "  FROM products p, to_tsquery('english', :tsquery) q"
+                 + "  WHERE to_tsvector('english', p.name) @@ q"
+                 + ") r "
+                 + "WHERE r.rank < CAST(:afterRank AS real) OR (r.rank = CAST(:afterRank AS real) AND r.id > :afterId) "
+                 + "ORDER BY r.rank DESC, r.id "
+                 + "LIMIT :limit",
+           nativeQuery = true)
+    List<ProductSearchRow> search(@Param("tsquery") String tsquery,
+                                  @Param("afterRank") float afterRank,
+                                  @Param("afterId") long afterId,
+                                  @Param("limit") int limit);
+}
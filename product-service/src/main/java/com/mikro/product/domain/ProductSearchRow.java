@@ -0,0 +1,12 @@
+package com.mikro.product.domain;
+
+import java.math.BigDecimal;
+
+// Native full-text search row; rank is the ts_rank of the product name against the query
+public interface ProductSearchRow {
+    Long getId();
+    String getName();
+    BigDecimal getPrice();
+    int getStock();
+    float getRank();
+}
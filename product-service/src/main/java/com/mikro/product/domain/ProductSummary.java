@@ -0,0 +1,10 @@
+package com.mikro.product.domain;
+
+import java.math.BigDecimal;
+
+// Listing projection; selected straight from the products table without loading entities
+public record ProductSummary(Long id, String name, BigDecimal price, int stock) {
+    public ProductSummary withStock(int stock) {
+        return new ProductSummary(id, name, price, stock);
+    }
+}
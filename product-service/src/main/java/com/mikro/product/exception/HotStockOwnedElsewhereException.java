@@ -0,0 +1,7 @@
+package com.mikro.product.exception;
+
+public class HotStockOwnedElsewhereException extends RuntimeException {
+    public HotStockOwnedElsewhereException(Long productId) {
+        super("Stock for product " + productId + " is held by another product-service instance");
+    }
+}
@@ -0,0 +1,7 @@
+package com.mikro.product.exception;
+
+public class StockReservationReleasedException extends RuntimeException {
+    public StockReservationReleasedException(String reservationId) {
+        super("Stock reservation " + reservationId + " has already been released");
+    }
+}
@@ -0,0 +1,98 @@
+package com.mikro.product.stock;
+
+import com.mikro.product.config.IdentityHeaderVerifier;
+import com.mikro.product.exception.HotStockOwnedElsewhereException;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.discovery.DiscoveryClient;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClient;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.net.URI;
+import java.util.List;
+import java.util.Optional;
+
+// Hands a stock change for a hot product owned by another node to that node, which serves it from its counter.
+// Owners are found through the hot-stock-node-id each instance registers in its discovery metadata. A request is
+// forwarded at most once; with the owner down or unknown the product's stock is unavailable (503) until it returns.
+@Component
+public class HotStockForwarder {
+    public static final String FORWARDED_HEADER = "X-Hot-Stock-Forwarded";
+    public static final String NODE_ID_METADATA = "hot-stock-node-id";
+
+    private static final List<String> PASSED_HEADERS = List.of(HttpHeaders.AUTHORIZATION, IdentityHeaderVerifier.HEADER);
+
+    private final HotStockOwnerRepository ownerRepository;
+    private final DiscoveryClient discoveryClient;
+    private final String serviceId;
+    private final RestClient restClient;
+
+    public HotStockForwarder(HotStockOwnerRepository ownerRepository,
+                             DiscoveryClient discoveryClient,
+                             @Value("${spring.application.name}") String serviceId,
+                             @Value("${stock.hot.forward-timeout-ms:2000}") int timeoutMs) {
+        this.ownerRepository = ownerRepository;
+        this.discoveryClient = discoveryClient;
+        this.serviceId = serviceId;
+        SimpleClientHttpRequestFactory requestFactory = new SimpleClientHttpRequestFactory();
+        requestFactory.setConnectTimeout(timeoutMs);
+        requestFactory.setReadTimeout(timeoutMs);
+        this.restClient = RestClient.builder().requestFactory(requestFactory).build();
+    }
+
+    // Replays the current request, with the given body if any, on the owner of productId and relays its answer
+    public ResponseEntity<byte[]> forward(Long productId, Object body) {
+        HttpServletRequest current = ((ServletRequestAttributes) RequestContextHolder.currentRequestAttributes()).getRequest();
+        if (current.getHeader(FORWARDED_HEADER) != null) {
+            // Ownership moved while the request was on its way; the caller retries
+            throw new HotStockOwnedElsewhereException(productId);
+        }
+        URI owner = ownerUri(productId).orElseThrow(() -> new HotStockOwnedElsewhereException(productId));
+        URI target = UriComponentsBuilder.fromUri(owner)
+            .replacePath(current.getRequestURI())
+            .replaceQuery(current.getQueryString())
+            .build(true)
+            .toUri();
+
+        RestClient.RequestBodySpec spec = restClient.method(HttpMethod.valueOf(current.getMethod()))
+            .uri(target)
+            .headers(headers -> {
+                for (String name : PASSED_HEADERS) {
+                    String value = current.getHeader(name);
+                    if (value != null) {
+                        headers.set(name, value);
+                    }
+                }
+                headers.set(FORWARDED_HEADER, "true");
+            });
+        if (body != null) {
+            spec.contentType(MediaType.APPLICATION_JSON).body(body);
+        }
+        return spec.exchange((request, response) -> {
+            ResponseEntity.BodyBuilder relayed = ResponseEntity.status(response.getStatusCode());
+            MediaType contentType = response.getHeaders().getContentType();
+            if (contentType != null) {
+                relayed.contentType(contentType);
+            }
+            return relayed.body(response.getBody().readAllBytes());
+        });
+    }
+
+    private Optional<URI> ownerUri(Long productId) {
+        return ownerRepository.findById(productId)
+            .map(HotStockOwner::getNodeId)
+            .flatMap(nodeId -> discoveryClient.getInstances(serviceId).stream()
+                .filter(instance -> nodeId.equals(instance.getMetadata().get(NODE_ID_METADATA)))
+                .map(ServiceInstance::getUri)
+                .findFirst());
+    }
+}
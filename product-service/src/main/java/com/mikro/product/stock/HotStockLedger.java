@@ -0,0 +1,318 @@
+package com.mikro.product.stock;
+
+import com.mikro.product.amqp.ProductEventPublisher;
+import com.mikro.product.domain.Product;
+import com.mikro.product.domain.ProductRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalInt;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+// Authoritative in-memory stock for designated hot products. A reservation is a CAS on the
+// counter plus one journal append; flush() later folds the journal into products.stock together
+// with a checkpoint row in one transaction (write-behind). On startup, journal records past the
+// checkpoint are applied before the counters are loaded from the database.
+// Each hot product is owned by one node at a time (hot_stock_owners). Only the owner serves it from its counter;
+// other nodes never change its stock themselves and forward such requests to the owner (HotStockForwarder). A node lets go of its products only after a clean final flush, so
+// a crashed owner keeps them until it restarts and replays its own journal.
+@Component
+public class HotStockLedger {
+    private static final Logger log = LoggerFactory.getLogger(HotStockLedger.class);
+    private static final int APPEND_ATTEMPTS = 100;
+
+    private final ProductRepository productRepository;
+    private final StockJournalCheckpointRepository checkpointRepository;
+    private final HotStockOwnerRepository ownerRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ProductEventPublisher eventPublisher;
+    private final boolean enabled;
+    private final Set<Long> hotProductIds;
+    private final Path journalDir;
+    private final int journalCapacity;
+    private final String nodeId;
+
+    private final Map<Long, AtomicInteger> available = new ConcurrentHashMap<>();
+    private final Deque<StockJournal> sealedJournals = new ConcurrentLinkedDeque<>();
+    private final Object rotationLock = new Object();
+    private volatile StockJournal journal;
+    private long flushedEpoch;
+    private long flushedPosition;
+
+    public HotStockLedger(ProductRepository productRepository,
+                          StockJournalCheckpointRepository checkpointRepository,
+                          HotStockOwnerRepository ownerRepository,
+                          TransactionTemplate transactionTemplate,
+                          ProductEventPublisher eventPublisher,
+                          @Value("${stock.hot.enabled:false}") boolean enabled,
+                          @Value("${stock.hot.product-ids:}") String hotProductIds,
+                          @Value("${stock.hot.journal-dir:./data/stock-journal}") String journalDir,
+                          @Value("${stock.hot.journal-capacity:1048576}") int journalCapacity,
+                          @Value("${stock.hot.node-id:}") String nodeId) {
+        if (enabled && nodeId.isBlank()) {
+            // Checkpoints, journals and ownership are per node; a shared id would replay another node's state
+            throw new IllegalStateException("stock.hot.node-id must be set to an id unique and stable per instance");
+        }
+        this.productRepository = productRepository;
+        this.checkpointRepository = checkpointRepository;
+        this.ownerRepository = ownerRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.eventPublisher = eventPublisher;
+        this.enabled = enabled;
+        this.hotProductIds = Arrays.stream(hotProductIds.split(","))
+            .map(String::trim)
+            .filter(id -> !id.isEmpty())
+            .map(Long::valueOf)
+            .collect(Collectors.toUnmodifiableSet());
+        this.journalDir = Path.of(journalDir);
+        this.journalCapacity = journalCapacity;
+        this.nodeId = nodeId;
+    }
+
+    @PostConstruct
+    void recover() {
+        if (!enabled || hotProductIds.isEmpty()) {
+            return;
+        }
+        try {
+            Files.createDirectories(journalDir);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+
+        StockJournalCheckpoint checkpoint = checkpointRepository.findById(nodeId)
+            .orElse(new StockJournalCheckpoint(nodeId, 0, 0));
+        List<Path> files = journalFiles();
+
+        // Fold everything written after the last checkpoint into products.stock before serving
+        Map<Long, Integer> deltas = new HashMap<>();
+        long lastEpoch = checkpoint.getEpoch();
+        long lastPosition = checkpoint.getPosition();
+        for (Path file : files) {
+            long epoch = StockJournal.epochOf(file);
+            if (epoch < checkpoint.getEpoch()) {
+                continue;
+            }
+            long from = epoch == checkpoint.getEpoch() ? checkpoint.getPosition() : 0;
+            lastPosition = StockJournal.open(file, epoch).replay(from, (id, delta) -> deltas.merge(id, delta, Integer::sum));
+            lastEpoch = epoch;
+        }
+        applyAndCheckpoint(deltas, lastEpoch, lastPosition);
+        files.forEach(file -> deleteQuietly(file));
+        if (!deltas.isEmpty()) {
+            log.info("Recovered {} hot stock deltas from journal", deltas.size());
+        }
+
+        long epoch = lastEpoch + 1;
+        journal = StockJournal.create(journalDir, epoch, journalCapacity);
+        flushedEpoch = epoch;
+        flushedPosition = 0;
+        claimUnowned();
+    }
+
+    // Picks up hot products whose owner has let go; their column is final because the owner flushed first
+    @Scheduled(fixedDelayString = "${stock.hot.claim-interval-ms:5000}")
+    public void claimUnowned() {
+        if (journal == null) {
+            return;
+        }
+        for (Long productId : hotProductIds) {
+            if (available.containsKey(productId)) {
+                continue;
+            }
+            try {
+                Integer stock = transactionTemplate.execute(status -> ownerRepository.claim(productId, nodeId) == 1
+                    ? productRepository.findStockById(productId).orElse(null)
+                    : null);
+                if (stock != null) {
+                    available.putIfAbsent(productId, new AtomicInteger(stock));
+                    log.info("Node {} now owns hot stock for product {}", nodeId, productId);
+                }
+            } catch (RuntimeException ex) {
+                log.warn("Could not claim hot product {}: {}", productId, ex.getMessage());
+            }
+        }
+    }
+
+    // Hot and owned by this node: stock changes go through the counter
+    public boolean isHot(Long productId) {
+        return available.containsKey(productId);
+    }
+
+    // Hot but owned by another node: neither the counter nor the column may be changed here
+    public boolean isOwnedElsewhere(Long productId) {
+        return enabled && hotProductIds.contains(productId) && !available.containsKey(productId);
+    }
+
+    public int available(Long productId) {
+        return available.get(productId).get();
+    }
+
+    // Returns the remaining stock, or empty when there is not enough
+    public OptionalInt tryReserve(Long productId, int quantity) {
+        AtomicInteger counter = available.get(productId);
+        int current;
+        do {
+            current = counter.get();
+            if (current < quantity) {
+                return OptionalInt.empty();
+            }
+        } while (!counter.compareAndSet(current, current - quantity));
+
+        try {
+            append(productId, quantity);
+        } catch (RuntimeException ex) {
+            counter.addAndGet(quantity);
+            throw ex;
+        }
+        return OptionalInt.of(current - quantity);
+    }
+
+    public void release(Long productId, int quantity) {
+        available.get(productId).addAndGet(quantity);
+        append(productId, -quantity);
+    }
+
+    // Sets an absolute stock level (owner edits); journalled as the delta from the current value
+    public void setStock(Long productId, int stock) {
+        AtomicInteger counter = available.get(productId);
+        int previous = counter.getAndSet(stock);
+        append(productId, previous - stock);
+    }
+
+    public void forget(Long productId) {
+        available.remove(productId);
+    }
+
+    @Scheduled(fixedDelayString = "${stock.hot.flush-interval-ms:250}")
+    public void flush() {
+        flushPending();
+    }
+
+    @PreDestroy
+    void shutdown() {
+        if (journal == null) {
+            return;
+        }
+        if (!flushPending()) {
+            // Keep ownership; the journal is replayed when this node comes back
+            log.warn("Hot stock not fully flushed; node {} keeps its hot products", nodeId);
+            return;
+        }
+        transactionTemplate.executeWithoutResult(status -> ownerRepository.releaseAll(nodeId));
+    }
+
+    private synchronized boolean flushPending() {
+        if (journal == null) {
+            return true;
+        }
+        try {
+            StockJournal sealed;
+            while ((sealed = sealedJournals.peekFirst()) != null) {
+                flushJournal(sealed);
+                sealedJournals.pollFirst();
+                sealed.delete();
+            }
+            StockJournal current = journal;
+            current.force();
+            flushJournal(current);
+            if (current.isNearlyFull()) {
+                rotate(current);
+            }
+            return true;
+        } catch (Exception ex) {
+            // Journal records stay in place and are applied on the next pass
+            log.warn("Hot stock flush failed: {}", ex.getMessage());
+            return false;
+        }
+    }
+
+    private void flushJournal(StockJournal target) {
+        long from = target.epoch() == flushedEpoch ? flushedPosition : 0;
+        Map<Long, Integer> deltas = new HashMap<>();
+        long to = target.read(from, (id, delta) -> deltas.merge(id, delta, Integer::sum));
+        if (to == from && target.epoch() == flushedEpoch) {
+            return;
+        }
+        applyAndCheckpoint(deltas, target.epoch(), to);
+        flushedEpoch = target.epoch();
+        flushedPosition = to;
+    }
+
+    private void applyAndCheckpoint(Map<Long, Integer> deltas, long epoch, long position) {
+        Instant now = Instant.now();
+        transactionTemplate.executeWithoutResult(status -> {
+            deltas.forEach((id, delta) -> {
+                if (delta != 0) {
+                    productRepository.applyStockDelta(id, delta, now);
+                    // Once per product per flush, so peers' caches follow hot stock without an event per order
+                    eventPublisher.stockChanged(id);
+                }
+            });
+            checkpointRepository.save(new StockJournalCheckpoint(nodeId, epoch, position));
+        });
+    }
+
+    private void append(Long productId, int delta) {
+        for (int attempt = 0; attempt < APPEND_ATTEMPTS; attempt++) {
+            StockJournal current = journal;
+            if (current.append(productId, delta)) {
+                return;
+            }
+            rotate(current);
+        }
+        throw new IllegalStateException("Hot stock journal is not accepting writes");
+    }
+
+    private void rotate(StockJournal full) {
+        synchronized (rotationLock) {
+            if (journal != full) {
+                return;
+            }
+            journal = StockJournal.create(journalDir, full.epoch() + 1, journalCapacity);
+            full.seal();
+            sealedJournals.addLast(full);
+        }
+    }
+
+    private List<Path> journalFiles() {
+        try (Stream<Path> files = Files.list(journalDir)) {
+            return files
+                .filter(file -> file.getFileName().toString().endsWith(".journal"))
+                .sorted(Comparator.comparingLong(StockJournal::epochOf))
+                .toList();
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException ex) {
+            log.warn("Could not delete journal {}: {}", file, ex.getMessage());
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package com.mikro.product.stock;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+@Entity
+@Table(name = "hot_stock_owners")
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class HotStockOwner {
+    @Id
+    @Column(name = "product_id")
+    private Long productId;
+
+    // Node whose HotStockLedger holds the stock; null once the owner has flushed and let go
+    @Column(name = "node_id")
+    private String nodeId;
+}
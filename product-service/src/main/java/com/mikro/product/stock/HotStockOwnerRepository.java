@@ -0,0 +1,21 @@
+package com.mikro.product.stock;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+public interface HotStockOwnerRepository extends JpaRepository<HotStockOwner, Long> {
+
+    // 1 when the product was free or already ours, 0 when another node holds it
+    @Modifying
+    @Query(value = "INSERT INTO hot_stock_owners (product_id, node_id) VALUES (:productId, :nodeId) "
+                 + "ON CONFLICT (product_id) DO UPDATE SET node_id = :nodeId "
+                 + "WHERE hot_stock_owners.node_id IS NULL OR hot_stock_owners.node_id = :nodeId",
+           nativeQuery = true)
+    int claim(@Param("productId") Long productId, @Param("nodeId") String nodeId);
+
+    @Modifying
+    @Query("UPDATE HotStockOwner o SET o.nodeId = null WHERE o.nodeId = :nodeId")
+    int releaseAll(@Param("nodeId") String nodeId);
+}
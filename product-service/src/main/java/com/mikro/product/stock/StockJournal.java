@@ -0,0 +1,150 @@
+package com.mikro.product.stock;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Fixed-size, memory-mapped write-ahead journal of stock deltas for one epoch.
+// Record layout (16 bytes): productId (long), delta (int), commit marker (int).
+// Writers reserve a slot with a single atomic increment and publish it by writing the marker last.
+class StockJournal {
+    static final int RECORD_SIZE = 16;
+    private static final int COMMITTED = 0x5EA1ED01;
+    private static final VarHandle INT_VIEW =
+        MethodHandles.byteBufferViewVarHandle(int[].class, ByteOrder.nativeOrder());
+
+    private final long epoch;
+    private final Path path;
+    private final MappedByteBuffer buffer;
+    private final long capacity;
+    private final AtomicLong tail = new AtomicLong();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private volatile boolean sealed;
+
+    private StockJournal(long epoch, Path path, MappedByteBuffer buffer, long capacity) {
+        this.epoch = epoch;
+        this.path = path;
+        this.buffer = buffer;
+        this.capacity = capacity;
+    }
+
+    static StockJournal create(Path dir, long epoch, int capacity) {
+        return map(dir.resolve(fileName(epoch)), epoch, (long) capacity * RECORD_SIZE);
+    }
+
+    static StockJournal open(Path file, long epoch) {
+        try {
+            return map(file, epoch, Files.size(file));
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    private static StockJournal map(Path file, long epoch, long size) {
+        try (FileChannel channel = FileChannel.open(file,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            buffer.order(ByteOrder.nativeOrder());
+            return new StockJournal(epoch, file, buffer, size / RECORD_SIZE);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    static String fileName(long epoch) {
+        return String.format("stock-%019d.journal", epoch);
+    }
+
+    static long epochOf(Path file) {
+        String name = file.getFileName().toString();
+        return Long.parseLong(name.substring("stock-".length(), name.length() - ".journal".length()));
+    }
+
+    // Returns false when the journal is sealed or full; the caller rotates and retries
+    boolean append(long productId, int delta) {
+        inFlight.incrementAndGet();
+        try {
+            if (sealed) {
+                return false;
+            }
+            long index = tail.getAndIncrement();
+            if (index >= capacity) {
+                return false;
+            }
+            int offset = (int) (index * RECORD_SIZE);
+            buffer.putLong(offset, productId);
+            buffer.putInt(offset + 8, delta);
+            INT_VIEW.setRelease(buffer, offset + 12, COMMITTED);
+            return true;
+        } finally {
+            inFlight.decrementAndGet();
+        }
+    }
+
+    // Live flushes: reads committed records starting at fromIndex and stops at the first slot not yet published
+    long read(long fromIndex, DeltaSink sink) {
+        long index = fromIndex;
+        while (index < capacity) {
+            int offset = (int) (index * RECORD_SIZE);
+            if ((int) INT_VIEW.getAcquire(buffer, offset + 12) != COMMITTED) {
+                break;
+            }
+            sink.accept(buffer.getLong(offset), buffer.getInt(offset + 8));
+            index++;
+        }
+        return index;
+    }
+
+    // Crash recovery: every committed record from fromIndex to the end of the file. A slot reserved by a writer that
+    // died before publishing stays unmarked; it is skipped so records committed after it are not lost.
+    long replay(long fromIndex, DeltaSink sink) {
+        for (long index = fromIndex; index < capacity; index++) {
+            int offset = (int) (index * RECORD_SIZE);
+            if ((int) INT_VIEW.getAcquire(buffer, offset + 12) == COMMITTED) {
+                sink.accept(buffer.getLong(offset), buffer.getInt(offset + 8));
+            }
+        }
+        return capacity;
+    }
+
+    void seal() {
+        sealed = true;
+        while (inFlight.get() > 0) {
+            Thread.onSpinWait();
+        }
+    }
+
+    boolean isNearlyFull() {
+        return tail.get() >= capacity * 3 / 4;
+    }
+
+    void force() {
+        buffer.force();
+    }
+
+    void delete() {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    long epoch() {
+        return epoch;
+    }
+
+    @FunctionalInterface
+    interface DeltaSink {
+        void accept(long productId, int delta);
+    }
+}
@@ -0,0 +1,24 @@
+package com.mikro.product.stock;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+@Entity
+@Table(name = "stock_journal_checkpoints")
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockJournalCheckpoint {
+    @Id
+    @Column(name = "node_id")
+    private String nodeId;
+
+    // Journal epoch and record index up to which deltas have been applied to products.stock
+    @Column(nullable = false)
+    private long epoch;
+
+    @Column(nullable = false)
+    private long position;
+}
@@ -0,0 +1,6 @@
+package com.mikro.product.stock;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface StockJournalCheckpointRepository extends JpaRepository<StockJournalCheckpoint, String> {
+}
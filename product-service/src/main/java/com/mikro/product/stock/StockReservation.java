@@ -0,0 +1,32 @@
+package com.mikro.product.stock;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.Instant;
+
+// One order's reservation, keyed by the id the caller generated so retries and releases settle the same one
+@Entity
+@Table(name = "stock_reservations", indexes = {
+    @Index(name = "idx_stock_reservations_created_at", columnList = "created_at")
+})
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockReservation {
+    public static final String RESERVED = "RESERVED";
+    public static final String RELEASED = "RELEASED";
+
+    @Id
+    @Column(name = "reservation_id", length = 64)
+    private String reservationId;
+
+    // RELEASED without lines: released before the reservation arrived, which is then refused
+    @Column(nullable = false, length = 16)
+    private String status;
+
+    @Column(name = "created_at", nullable = false)
+    private Instant createdAt;
+}
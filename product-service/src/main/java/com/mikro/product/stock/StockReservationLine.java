@@ -0,0 +1,28 @@
+package com.mikro.product.stock;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+@Entity
+@Table(name = "stock_reservation_lines", indexes = {
+    @Index(name = "idx_stock_reservation_lines_reservation", columnList = "reservation_id")
+})
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockReservationLine {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "reservation_id", nullable = false, length = 64)
+    private String reservationId;
+
+    @Column(name = "product_id", nullable = false)
+    private Long productId;
+
+    @Column(nullable = false)
+    private int quantity;
+}
@@ -0,0 +1,9 @@
+package com.mikro.product.stock;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.List;
+
+public interface StockReservationLineRepository extends JpaRepository<StockReservationLine, Long> {
+    List<StockReservationLine> findByReservationId(String reservationId);
+}
@@ -0,0 +1,37 @@
+package com.mikro.product.stock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.Instant;
+
+// Reservation ids only need to outlive the caller's retries and compensating releases
+@Component
+public class StockReservationPurgeJob {
+    private static final Logger log = LoggerFactory.getLogger(StockReservationPurgeJob.class);
+
+    private final StockReservationRepository reservationRepository;
+    private final Duration retention;
+
+    public StockReservationPurgeJob(StockReservationRepository reservationRepository,
+                                    @Value("${stock.reservation.retention-hours:24}") long retentionHours) {
+        this.reservationRepository = reservationRepository;
+        this.retention = Duration.ofHours(retentionHours);
+    }
+
+    @Scheduled(fixedDelayString = "${stock.reservation.purge-interval-ms:3600000}")
+    @Transactional
+    public void purge() {
+        Instant cutoff = Instant.now().minus(retention);
+        reservationRepository.deleteLinesOlderThan(cutoff);
+        int deleted = reservationRepository.deleteOlderThan(cutoff);
+        if (deleted > 0) {
+            log.info("Purged {} stock reservations older than {}", deleted, cutoff);
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.mikro.product.stock;
+
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.Instant;
+import java.util.Optional;
+
+public interface StockReservationRepository extends JpaRepository<StockReservation, String> {
+
+    // 1 when the id was new; 0 when it already exists (waits for a concurrent insert of the same id to settle)
+    @Modifying
+    @Query(value = "INSERT INTO stock_reservations (reservation_id, status, created_at) VALUES (:id, :status, now()) "
+                 + "ON CONFLICT (reservation_id) DO NOTHING",
+           nativeQuery = true)
+    int insertIfAbsent(@Param("id") String reservationId, @Param("status") String status);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT r FROM StockReservation r WHERE r.reservationId = :id")
+    Optional<StockReservation> findByIdWithLock(@Param("id") String reservationId);
+
+    @Modifying
+    @Query(value = "DELETE FROM stock_reservation_lines WHERE reservation_id IN "
+                 + "(SELECT reservation_id FROM stock_reservations WHERE created_at < :cutoff)",
+           nativeQuery = true)
+    int deleteLinesOlderThan(@Param("cutoff") Instant cutoff);
+
+    @Modifying
+    @Query("DELETE FROM StockReservation r WHERE r.createdAt < :cutoff")
+    int deleteOlderThan(@Param("cutoff") Instant cutoff);
+}
@@ -0,0 +1,41 @@
+package com.mikro.product.web;
+
+import com.mikro.product.exception.InvalidPageRequestException;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+// Opaque keyset position: the sort key and value of the last row served plus its id as tie-breaker.
+// A null value marks rows whose sort column is null, which are served after all others.
+record PageCursor(String sort, String value, long id) {
+    private static final String SEPARATOR = "\n";
+
+    String encode() {
+        String raw = sort + SEPARATOR + id + (value != null ? SEPARATOR + value : "");
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    static PageCursor decode(String cursor, String expectedSort) {
+        String[] parts;
+        long id;
+        try {
+            parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split(SEPARATOR, 3);
+            id = Long.parseLong(parts[1]);
+        } catch (IllegalArgumentException | ArrayIndexOutOfBoundsException ex) {
+            throw new InvalidPageRequestException("Malformed cursor");
+        }
+        if (!parts[0].equals(expectedSort)) {
+            throw new InvalidPageRequestException("Cursor was issued for sort '" + parts[0] + "', not '" + expectedSort + "'");
+        }
+        return new PageCursor(parts[0], parts.length > 2 ? parts[2] : null, id);
+    }
+
+    BigDecimal decimalValue() {
+        try {
+            return new BigDecimal(value);
+        } catch (NumberFormatException ex) {
+            throw new InvalidPageRequestException("Malformed cursor");
+        }
+    }
+}
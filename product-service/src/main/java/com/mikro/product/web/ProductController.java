@@ -1,23 +1,76 @@
 package com.mikro.product.web;
 
+import com.mikro.product.amqp.ProductEventPublisher;
+import com.mikro.product.cache.ProductCache;
 import com.mikro.product.domain.Product;
 import com.mikro.product.domain.ProductRepository;
+import com.mikro.product.domain.ProductSearchRow;
+import com.mikro.product.domain.ProductSummary;
+import com.mikro.product.exception.InvalidPageRequestException;
 import com.mikro.product.exception.ProductAccessDeniedException;
 import com.mikro.product.exception.ProductNotFoundException;
 import com.mikro.product.exception.InsufficientStockException;
+import com.mikro.product.exception.StockReservationReleasedException;
+import com.mikro.product.stock.HotStockForwarder;
+import com.mikro.product.stock.HotStockLedger;
+import com.mikro.product.stock.StockReservation;
+import com.mikro.product.stock.StockReservationLine;
+import com.mikro.product.stock.StockReservationLineRepository;
+import com.mikro.product.stock.StockReservationRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalInt;
+import java.util.TreeMap;
+import java.util.function.Function;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
 @RestController
 @RequestMapping("/api/v1/products")
 public class ProductController implements ProductControllerApi {
+    private static final int MAX_SCROLL_SIZE = 100;
+    private static final int MAX_SEARCH_TERMS = 8;
+    private static final Pattern SEARCH_TERM = Pattern.compile("[\\p{L}\\p{N}]+");
+
     private final ProductRepository repository;
+    private final HotStockLedger hotStockLedger;
+    private final HotStockForwarder hotStockForwarder;
+    private final StockReservationRepository reservationRepository;
+    private final StockReservationLineRepository reservationLineRepository;
+    private final ProductEventPublisher eventPublisher;
+    private final ProductCache productCache;
+    private final int searchMaxResults;
 
-    public ProductController(ProductRepository repository) {
+    public ProductController(ProductRepository repository, HotStockLedger hotStockLedger,
+                             HotStockForwarder hotStockForwarder,
+                             StockReservationRepository reservationRepository,
+                             StockReservationLineRepository reservationLineRepository,
+                             ProductEventPublisher eventPublisher, ProductCache productCache,
+                             @Value("${product.search.max-results:1000}") int searchMaxResults) {
         this.repository = repository;
+        this.hotStockLedger = hotStockLedger;
+        this.hotStockForwarder = hotStockForwarder;
+        this.reservationRepository = reservationRepository;
+        this.reservationLineRepository = reservationLineRepository;
+        this.eventPublisher = eventPublisher;
+        this.productCache = productCache;
+        this.searchMaxResults = searchMaxResults;
     }
 
     @Override
@@ -35,10 +88,30 @@ public class ProductController implements ProductControllerApi {
     }
 
     @Override
-    public ResponseEntity<?> get(Long id) {
-        Product product = repository.findById(id)
+    public ResponseEntity<?> get(Long id, String ifNoneMatch) {
+        ProductCache.CachedProduct cached = productCache.get(id, () -> repository.findById(id))
             .orElseThrow(() -> new ProductNotFoundException(id));
-        return ResponseEntity.ok(product);
+
+        String etag;
+        byte[] body;
+        if (hotStockLedger.isHot(id)) {
+            int stock = hotStockLedger.available(id);
+            etag = cached.etag(stock);
+            body = productCache.serialize(withStock(cached.product(), stock));
+        } else {
+            etag = cached.etag();
+            body = cached.body();
+        }
+
+        boolean notModified = etagMatches(ifNoneMatch, etag);
+        ResponseEntity.BodyBuilder response = notModified
+            ? ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+            : ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON);
+        response.eTag(etag);
+        if (cached.updatedAt() != null) {
+            response.lastModified(cached.updatedAt());
+        }
+        return notModified ? response.build() : response.body(body);
     }
 
     @Override
@@ -46,6 +119,99 @@ public class ProductController implements ProductControllerApi {
         return ResponseEntity.ok(repository.findAll(PageRequest.of(page, size)));
     }
 
+    @Override
+    public ResponseEntity<?> scroll(String sort, String cursor, int size) {
+        int pageSize = Math.min(Math.max(size, 1), MAX_SCROLL_SIZE);
+        PageCursor after = cursor == null || cursor.isBlank() ? null : PageCursor.decode(cursor, sort);
+        // One extra row tells whether another page exists without counting
+        Limit fetch = Limit.of(pageSize + 1);
+        List<ProductSummary> rows = switch (sort) {
+            case "id" -> repository.scrollById(after == null ? 0L : after.id(), fetch);
+            case "name" -> after == null
+                ? repository.scrollByName("", 0L, fetch)
+                : repository.scrollByName(after.value(), after.id(), fetch);
+            case "price" -> scrollByPrice(after, pageSize + 1);
+            default -> throw new InvalidPageRequestException("Unsupported sort '" + sort + "', expected id, name or price");
+        };
+
+        String nextCursor = null;
+        if (rows.size() > pageSize) {
+            rows = rows.subList(0, pageSize);
+            ProductSummary last = rows.get(pageSize - 1);
+            String value = switch (sort) {
+                case "name" -> last.name();
+                case "price" -> last.price() != null ? last.price().toPlainString() : null;
+                default -> null;
+            };
+            nextCursor = new PageCursor(sort, value, last.id()).encode();
+        }
+
+        List<ProductSummary> items = rows.stream()
+            .map(row -> hotStockLedger.isHot(row.id()) ? row.withStock(hotStockLedger.available(row.id())) : row)
+            .toList();
+        return ResponseEntity.ok(new ProductSlice(items, nextCursor));
+    }
+
+    @Override
+    public ResponseEntity<?> search(String q, String cursor, int size) {
+        String tsquery = toPrefixTsQuery(q);
+        SearchCursor after = cursor == null || cursor.isBlank() ? null : SearchCursor.decode(cursor, tsquery.hashCode());
+        int served = after == null ? 0 : after.served();
+        // Deep result windows are cut off; clients should refine the query instead
+        int pageSize = Math.min(Math.min(Math.max(size, 1), MAX_SCROLL_SIZE), searchMaxResults - served);
+        if (pageSize <= 0) {
+            return ResponseEntity.ok(new SearchSlice(List.of(), null));
+        }
+
+        List<ProductSearchRow> rows = repository.search(tsquery,
+            after == null ? Float.MAX_VALUE : after.rank(),
+            after == null ? 0L : after.id(),
+            pageSize + 1);
+
+        String nextCursor = null;
+        if (rows.size() > pageSize) {
+            rows = rows.subList(0, pageSize);
+            ProductSearchRow last = rows.get(pageSize - 1);
+            if (served + pageSize < searchMaxResults) {
+                nextCursor = new SearchCursor(last.getRank(), last.getId(), served + pageSize, tsquery.hashCode()).encode();
+            }
+        }
+
+        List<SearchHit> items = rows.stream()
+            .map(row -> new SearchHit(row.getId(), row.getName(), row.getPrice(),
+                hotStockLedger.isHot(row.getId()) ? hotStockLedger.available(row.getId()) : row.getStock(),
+                row.getRank()))
+            .toList();
+        return ResponseEntity.ok(new SearchSlice(items, nextCursor));
+    }
+
+    // Keeps only word characters so user input can never produce tsquery syntax errors or operators
+    private static String toPrefixTsQuery(String q) {
+        List<String> terms = new ArrayList<>();
+        Matcher matcher = SEARCH_TERM.matcher(q == null ? "" : q);
+        while (matcher.find() && terms.size() < MAX_SEARCH_TERMS) {
+            terms.add(matcher.group().toLowerCase() + ":*");
+        }
+        if (terms.isEmpty()) {
+            throw new InvalidPageRequestException("Search query must contain at least one letter or digit");
+        }
+        return String.join(" & ", terms);
+    }
+
+    private List<ProductSummary> scrollByPrice(PageCursor after, int fetch) {
+        List<ProductSummary> rows = new ArrayList<>(fetch);
+        if (after == null) {
+            rows.addAll(repository.firstByPrice(Limit.of(fetch)));
+        } else if (after.value() != null) {
+            rows.addAll(repository.scrollByPrice(after.decimalValue(), after.id(), Limit.of(fetch)));
+        }
+        if (rows.size() < fetch) {
+            long afterId = after != null && after.value() == null ? after.id() : 0L;
+            rows.addAll(repository.scrollUnpriced(afterId, Limit.of(fetch - rows.size())));
+        }
+        return rows;
+    }
+
     @Override
     public ResponseEntity<?> update(Long id, ProductRequest req) {
         String currentUser = String.valueOf(SecurityContextHolder.getContext().getAuthentication().getPrincipal());
@@ -56,10 +222,25 @@ public class ProductController implements ProductControllerApi {
             throw new ProductAccessDeniedException(id, product.getOwnerUsername());
         }
         
+        if (hotStockLedger.isOwnedElsewhere(id)) {
+            return hotStockForwarder.forward(id, req);
+        }
+
         product.setName(req.name());
         product.setPrice(req.price());
+        if (hotStockLedger.isHot(id)) {
+            // The ledger owns hot stock; the column catches up on the next write-behind flush
+            hotStockLedger.setStock(id, req.stock());
+            Product saved = repository.save(product);
+            productCache.evict(id);
+            eventPublisher.productUpdated(id);
+            return ResponseEntity.ok(withStock(saved, req.stock()));
+        }
         product.setStock(req.stock());
-        return ResponseEntity.ok(repository.save(product));
+        Product saved = repository.save(product);
+        productCache.evict(id);
+        eventPublisher.productUpdated(id);
+        return ResponseEntity.ok(saved);
     }
 
     @Override
@@ -73,27 +254,245 @@ public class ProductController implements ProductControllerApi {
         }
         
         repository.deleteById(id);
+        hotStockLedger.forget(id);
+        productCache.evict(id);
+        eventPublisher.productDeleted(id);
         return ResponseEntity.noContent().build();
     }
 
     @Override
     @Transactional
     public ResponseEntity<?> reduceStock(Long id, StockReductionRequest request) {
-        Product product = repository.findByIdWithLock(id)
+        if (hotStockLedger.isHot(id)) {
+            Product product = repository.findById(id)
+                .orElseThrow(() -> new ProductNotFoundException(id));
+            OptionalInt remaining = hotStockLedger.tryReserve(id, request.quantity());
+            if (remaining.isEmpty()) {
+                throw new InsufficientStockException(id, hotStockLedger.available(id), request.quantity());
+            }
+            releaseUnlessCommitted(Map.of(id, request.quantity()));
+            return ResponseEntity.ok(withStock(product, remaining.getAsInt()));
+        }
+        if (hotStockLedger.isOwnedElsewhere(id)) {
+            return hotStockForwarder.forward(id, request);
+        }
+
+        Optional<Product> updated = repository.decrementStock(id, request.quantity());
+        if (updated.isPresent()) {
+            productCache.evict(id);
+            eventPublisher.stockChanged(id);
+            return ResponseEntity.ok(updated.get());
+        }
+
+        // Only the failure path reads again, without a lock, to report why the update matched nothing
+        int available = repository.findStockById(id)
             .orElseThrow(() -> new ProductNotFoundException(id));
-            
-        if (product.getStock() < request.quantity()) {
-            throw new InsufficientStockException(id, product.getStock(), request.quantity());
+        throw new InsufficientStockException(id, available, request.quantity());
+    }
+
+    @Override
+    @Transactional
+    public ResponseEntity<?> reserveStock(StockReservationRequest request) {
+        // Merge duplicate lines; TreeMap keeps the lock order stable
+        Map<Long, Integer> quantities = new TreeMap<>();
+        Map<Long, Integer> hotQuantities = new TreeMap<>();
+        for (StockReservationItem item : request.items()) {
+            if (hotStockLedger.isOwnedElsewhere(item.productId())) {
+                // The owner reserves the whole order, so the reservation stays all-or-nothing
+                return hotStockForwarder.forward(item.productId(), request);
+            }
+            Map<Long, Integer> target = hotStockLedger.isHot(item.productId()) ? hotQuantities : quantities;
+            target.merge(item.productId(), item.quantity(), Integer::sum);
         }
-        
-        int updatedRows = repository.reduceStock(id, request.quantity());
-        if (updatedRows == 0) {
-            throw new InsufficientStockException("Concurrent stock reduction occurred, please try again");
+
+        // Claims the id first; a concurrent request with the same id waits here until this one settles
+        String reservationId = request.reservationId();
+        if (reservationId != null && reservationRepository.insertIfAbsent(reservationId, StockReservation.RESERVED) == 0) {
+            return ResponseEntity.ok(replayReservation(reservationId));
         }
-        
-        // Refresh entity to get updated stock
-        Product updatedProduct = repository.findById(id).orElseThrow();
-        return ResponseEntity.ok(updatedProduct);
+
+        List<Product> products = quantities.isEmpty() ? List.of() : repository.findAllByIdWithLock(quantities.keySet());
+        if (products.size() != quantities.size()) {
+            throw new ProductNotFoundException(firstMissing(quantities, products));
+        }
+
+        // Validate every line before touching any row so the reservation is all-or-nothing
+        for (Product product : products) {
+            int requested = quantities.get(product.getId());
+            if (product.getStock() < requested) {
+                throw new InsufficientStockException(product.getId(), product.getStock(), requested);
+            }
+        }
+
+        List<ReservedItem> reserved = new ArrayList<>(products.size() + hotQuantities.size());
+        if (!hotQuantities.isEmpty()) {
+            reserveHot(hotQuantities, reserved);
+        }
+        for (Product product : products) {
+            product.setStock(product.getStock() - quantities.get(product.getId()));
+            productCache.evict(product.getId());
+            eventPublisher.stockChanged(product.getId());
+            reserved.add(new ReservedItem(product.getId(), product.getName(), product.getPrice(), product.getStock()));
+        }
+        if (reservationId != null) {
+            List<StockReservationLine> lines = new ArrayList<>(quantities.size() + hotQuantities.size());
+            quantities.forEach((productId, quantity) -> lines.add(line(reservationId, productId, quantity)));
+            hotQuantities.forEach((productId, quantity) -> lines.add(line(reservationId, productId, quantity)));
+            reservationLineRepository.saveAll(lines);
+        }
+        return ResponseEntity.ok(reserved);
+    }
+
+    // A repeated request gets the outcome of the first one, with current stock levels
+    private List<ReservedItem> replayReservation(String reservationId) {
+        StockReservation reservation = reservationRepository.findById(reservationId)
+            .orElseThrow(() -> new StockReservationReleasedException(reservationId));
+        if (StockReservation.RELEASED.equals(reservation.getStatus())) {
+            throw new StockReservationReleasedException(reservationId);
+        }
+
+        List<StockReservationLine> lines = reservationLineRepository.findByReservationId(reservationId);
+        Map<Long, Product> products = repository.findAllById(lines.stream().map(StockReservationLine::getProductId).toList())
+            .stream()
+            .collect(Collectors.toMap(Product::getId, Function.identity()));
+        List<ReservedItem> reserved = new ArrayList<>(lines.size());
+        for (StockReservationLine line : lines) {
+            Product product = products.get(line.getProductId());
+            if (product == null) {
+                throw new ProductNotFoundException(line.getProductId());
+            }
+            int stock = hotStockLedger.isHot(product.getId()) ? hotStockLedger.available(product.getId()) : product.getStock();
+            reserved.add(new ReservedItem(product.getId(), product.getName(), product.getPrice(), stock));
+        }
+        return reserved;
+    }
+
+    @Override
+    @Transactional
+    public ResponseEntity<?> releaseReservation(String reservationId) {
+        if (reservationRepository.insertIfAbsent(reservationId, StockReservation.RELEASED) == 1) {
+            // Nothing was reserved under this id; the tombstone refuses the reservation if it arrives later
+            return ResponseEntity.noContent().build();
+        }
+
+        List<StockReservationLine> lines = reservationLineRepository.findByReservationId(reservationId);
+        for (StockReservationLine line : lines) {
+            if (hotStockLedger.isOwnedElsewhere(line.getProductId())) {
+                // Checked before taking the row lock, which the owner needs to release
+                return hotStockForwarder.forward(line.getProductId(), null);
+            }
+        }
+
+        Optional<StockReservation> locked = reservationRepository.findByIdWithLock(reservationId);
+        if (locked.isEmpty() || StockReservation.RELEASED.equals(locked.get().getStatus())) {
+            return ResponseEntity.noContent().build();
+        }
+
+        Map<Long, Integer> quantities = new TreeMap<>();
+        Map<Long, Integer> hotQuantities = new TreeMap<>();
+        for (StockReservationLine line : lines) {
+            Map<Long, Integer> target = hotStockLedger.isHot(line.getProductId()) ? hotQuantities : quantities;
+            target.merge(line.getProductId(), line.getQuantity(), Integer::sum);
+        }
+        // Products deleted since the reservation have no stock left to give back
+        List<Product> products = quantities.isEmpty() ? List.of() : repository.findAllByIdWithLock(quantities.keySet());
+        for (Product product : products) {
+            product.setStock(product.getStock() + quantities.get(product.getId()));
+            productCache.evict(product.getId());
+            eventPublisher.stockChanged(product.getId());
+        }
+        if (!hotQuantities.isEmpty()) {
+            releaseOnCommit(hotQuantities);
+        }
+        locked.get().setStatus(StockReservation.RELEASED);
+        return ResponseEntity.noContent().build();
+    }
+
+    private void reserveHot(Map<Long, Integer> hotQuantities, List<ReservedItem> reserved) {
+        List<Product> hotProducts = repository.findAllById(hotQuantities.keySet());
+        if (hotProducts.size() != hotQuantities.size()) {
+            throw new ProductNotFoundException(firstMissing(hotQuantities, hotProducts));
+        }
+
+        Map<Long, Integer> taken = new TreeMap<>();
+        for (Product product : hotProducts) {
+            int requested = hotQuantities.get(product.getId());
+            OptionalInt remaining = hotStockLedger.tryReserve(product.getId(), requested);
+            if (remaining.isEmpty()) {
+                taken.forEach(hotStockLedger::release);
+                throw new InsufficientStockException(product.getId(), hotStockLedger.available(product.getId()), requested);
+            }
+            taken.put(product.getId(), requested);
+            reserved.add(new ReservedItem(product.getId(), product.getName(), product.getPrice(), remaining.getAsInt()));
+        }
+        releaseUnlessCommitted(taken);
+    }
+
+    // The ledger is outside the database transaction; give the stock back if it does not commit
+    private void releaseUnlessCommitted(Map<Long, Integer> taken) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status != STATUS_COMMITTED) {
+                    taken.forEach(hotStockLedger::release);
+                }
+            }
+        });
+    }
+
+    // The counter cannot roll back, so it is only credited once the release is durable
+    private void releaseOnCommit(Map<Long, Integer> released) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                released.forEach(hotStockLedger::release);
+            }
+        });
+    }
+
+    private static StockReservationLine line(String reservationId, Long productId, int quantity) {
+        return StockReservationLine.builder()
+            .reservationId(reservationId)
+            .productId(productId)
+            .quantity(quantity)
+            .build();
+    }
+
+    // If-None-Match may list several tags; weak comparison is enough for a GET
+    static boolean etagMatches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null || ifNoneMatch.isBlank()) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals("*") || tag.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static Long firstMissing(Map<Long, Integer> quantities, List<Product> found) {
+        return quantities.keySet().stream()
+            .filter(id -> found.stream().noneMatch(p -> p.getId().equals(id)))
+            .findFirst()
+            .orElseThrow();
+    }
+
+    // Detached copy so a managed entity never writes the ledger's value back to products.stock
+    private static Product withStock(Product product, int stock) {
+        return Product.builder()
+            .id(product.getId())
+            .name(product.getName())
+            .stock(stock)
+            .price(product.getPrice())
+            .ownerUsername(product.getOwnerUsername())
+            .version(product.getVersion())
+            .updatedAt(product.getUpdatedAt())
+            .build();
     }
 
 }
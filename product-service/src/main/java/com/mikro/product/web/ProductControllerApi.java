@@ -1,12 +1,18 @@
 package com.mikro.product.web;
 
+import com.mikro.product.domain.ProductSummary;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.math.BigDecimal;
+import java.util.List;
 
 public interface ProductControllerApi {
 
@@ -14,12 +20,25 @@ public interface ProductControllerApi {
     ResponseEntity<?> create(@Valid @RequestBody ProductRequest req);
 
     @GetMapping("/{id}")
-    ResponseEntity<?> get(@PathVariable Long id);
+    ResponseEntity<?> get(@PathVariable Long id,
+                          @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch);
 
     @GetMapping
     ResponseEntity<?> list(@RequestParam(defaultValue = "0") int page,
                           @RequestParam(defaultValue = "10") int size);
 
+    // Cursor-based listing without a count query; pass back nextCursor until it is null
+    @GetMapping("/scroll")
+    ResponseEntity<?> scroll(@RequestParam(defaultValue = "id") String sort,
+                            @RequestParam(required = false) String cursor,
+                            @RequestParam(defaultValue = "20") int size);
+
+    // Ranked full-text search on product names; every term is prefix-matched and all must match
+    @GetMapping("/search")
+    ResponseEntity<?> search(@RequestParam String q,
+                            @RequestParam(required = false) String cursor,
+                            @RequestParam(defaultValue = "20") int size);
+
     @PutMapping("/{id}")
     ResponseEntity<?> update(@PathVariable Long id, @Valid @RequestBody ProductRequest req);
 
@@ -29,6 +48,13 @@ public interface ProductControllerApi {
     @PostMapping("/{id}/reduce-stock")
     ResponseEntity<?> reduceStock(@PathVariable Long id, @RequestBody StockReductionRequest request);
 
+    @PostMapping("/reserve-stock")
+    ResponseEntity<?> reserveStock(@Valid @RequestBody StockReservationRequest request);
+
+    // Gives back the stock of a reservation; idempotent, and a release that arrives first blocks the reservation
+    @PostMapping("/reserve-stock/{reservationId}/release")
+    ResponseEntity<?> releaseReservation(@PathVariable String reservationId);
+
     record ProductRequest(
         @NotBlank String name,
         @Min(0) int stock,
@@ -36,6 +62,17 @@ public interface ProductControllerApi {
     ) {}
     
     record StockReductionRequest(@Min(1) int quantity) {}
+
+    // reservationId is optional; with it a repeated request returns the first result instead of reserving twice
+    record StockReservationRequest(@Size(max = 64) String reservationId,
+                                   @NotEmpty List<@Valid StockReservationItem> items) {}
+    record StockReservationItem(@NotNull Long productId, @Min(1) int quantity) {}
+    record ReservedItem(Long productId, String name, BigDecimal price, int remainingStock) {}
+
+    record ProductSlice(List<ProductSummary> items, String nextCursor) {}
+
+    record SearchHit(Long id, String name, BigDecimal price, int stock, float rank) {}
+    record SearchSlice(List<SearchHit> items, String nextCursor) {}
 }
 
 
@@ -0,0 +1,32 @@
+package com.mikro.product.web;
+
+import com.mikro.product.exception.InvalidPageRequestException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+// Keyset position in a ranked search: (rank desc, id asc) of the last hit, how many hits were served so far
+// and a fingerprint of the query so a cursor cannot be replayed against a different search.
+record SearchCursor(float rank, long id, int served, int queryHash) {
+    private static final String SEPARATOR = "\n";
+
+    String encode() {
+        String raw = Float.toString(rank) + SEPARATOR + id + SEPARATOR + served + SEPARATOR + queryHash;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    static SearchCursor decode(String cursor, int expectedQueryHash) {
+        SearchCursor decoded;
+        try {
+            String[] parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split(SEPARATOR);
+            decoded = new SearchCursor(Float.parseFloat(parts[0]), Long.parseLong(parts[1]),
+                Integer.parseInt(parts[2]), Integer.parseInt(parts[3]));
+        } catch (IllegalArgumentException | ArrayIndexOutOfBoundsException ex) {
+            throw new InvalidPageRequestException("Malformed cursor");
+        }
+        if (decoded.queryHash() != expectedQueryHash) {
+            throw new InvalidPageRequestException("Cursor was issued for a different search");
+        }
+        return decoded;
+    }
+}
@@ -0,0 +1,73 @@
+package com.mikro.product.cache;
+
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.mikro.product.domain.Product;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ProductCacheTest {
+    private final ProductCache cache = new ProductCache(JsonMapper.builder().findAndAddModules().build(),
+        new SimpleMeterRegistry(), 100, 60_000);
+
+    @Test
+    void servesLoadedProductsFromTheCache() {
+        AtomicInteger loads = new AtomicInteger();
+
+        cache.get(7L, () -> load(loads, 1));
+        ProductCache.CachedProduct cached = cache.get(7L, () -> load(loads, 2)).orElseThrow();
+
+        assertThat(loads).hasValue(1);
+        assertThat(cached.etag()).isEqualTo("\"7-1\"");
+    }
+
+    @Test
+    void aRowLoadedAcrossAnEvictIsNotStored() {
+        AtomicInteger loads = new AtomicInteger();
+
+        // The writer commits and evicts after the reader has read version 1
+        ProductCache.CachedProduct racing = cache.get(7L, () -> {
+            Optional<Product> old = load(loads, 1);
+            cache.evict(7L);
+            return old;
+        }).orElseThrow();
+        ProductCache.CachedProduct next = cache.get(7L, () -> load(loads, 2)).orElseThrow();
+
+        assertThat(racing.version()).isEqualTo(1);
+        assertThat(next.version()).isEqualTo(2);
+        assertThat(loads).hasValue(2);
+    }
+
+    @Test
+    void neverReplacesANewerStoredVersion() {
+        AtomicInteger loads = new AtomicInteger();
+
+        // A slower reader holding version 3 finishes after a faster one stored version 4
+        ProductCache.CachedProduct slow = cache.get(7L, () -> {
+            Optional<Product> old = load(loads, 3);
+            cache.get(7L, () -> load(loads, 4));
+            return old;
+        }).orElseThrow();
+
+        assertThat(slow.version()).isEqualTo(4);
+        assertThat(cache.get(7L, () -> load(loads, 1)).orElseThrow().version()).isEqualTo(4);
+    }
+
+    private static Optional<Product> load(AtomicInteger loads, long version) {
+        loads.incrementAndGet();
+        return Optional.of(Product.builder()
+            .id(7L)
+            .name("Mug")
+            .stock(3)
+            .price(new BigDecimal("9.90"))
+            .version(version)
+            .updatedAt(Instant.parse("2026-10-18T10:00:00Z"))
+            .build());
+    }
+}
@@ -0,0 +1,175 @@
+package com.mikro.product.domain;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+// Many threads decrementing one product row: the old lock/update/re-read path against the single
+// UPDATE ... RETURNING in ProductRepository.decrementStock. Runs against a real PostgreSQL on a scratch table:
+//   mvn test -Dgroups=benchmark -DexcludedGroups=none -Dtest=StockDecrementContentionBenchmark \
+//       -Dbench.jdbc.url=jdbc:postgresql://localhost:5432/product_db
+// Optional: -Dbench.jdbc.user, -Dbench.jdbc.password, -Dbench.threads (32)
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+public class StockDecrementContentionBenchmark {
+    private static final String TABLE = "stock_contention_bench";
+    private static final long PRODUCT_ID = 1L;
+    private static final int INITIAL_STOCK = Integer.MAX_VALUE;
+
+    private final AtomicLong decrements = new AtomicLong();
+    private String url;
+    private String user;
+    private String password;
+
+    @Setup(Level.Trial)
+    public void createTable() throws SQLException {
+        url = System.getProperty("bench.jdbc.url");
+        user = System.getProperty("bench.jdbc.user", "postgres");
+        password = System.getProperty("bench.jdbc.password", "postgres");
+        try (Connection connection = connect(); Statement statement = connection.createStatement()) {
+            statement.execute("DROP TABLE IF EXISTS " + TABLE);
+            statement.execute("CREATE TABLE " + TABLE + " (id BIGINT PRIMARY KEY, stock INT NOT NULL, "
+                + "version BIGINT NOT NULL, updated_at TIMESTAMPTZ)");
+            statement.execute("INSERT INTO " + TABLE + " VALUES (" + PRODUCT_ID + ", " + INITIAL_STOCK + ", 0, now())");
+        }
+        decrements.set(0);
+    }
+
+    @TearDown(Level.Trial)
+    public void checkAndDropTable() throws SQLException {
+        try (Connection connection = connect(); Statement statement = connection.createStatement()) {
+            long stock;
+            try (ResultSet rows = statement.executeQuery("SELECT stock FROM " + TABLE + " WHERE id = " + PRODUCT_ID)) {
+                rows.next();
+                stock = rows.getLong(1);
+            }
+            // Every successful decrement took exactly one unit, whichever path ran
+            assertThat(stock).isEqualTo(INITIAL_STOCK - decrements.get());
+            statement.execute("DROP TABLE IF EXISTS " + TABLE);
+        }
+    }
+
+    private Connection connect() throws SQLException {
+        return DriverManager.getConnection(url, user, password);
+    }
+
+    // One connection per benchmark thread, as each request holds its own pooled connection
+    @State(Scope.Thread)
+    public static class LockingSession {
+        Connection connection;
+        PreparedStatement lock;
+        PreparedStatement update;
+        PreparedStatement reread;
+
+        @Setup(Level.Trial)
+        public void open(StockDecrementContentionBenchmark benchmark) throws SQLException {
+            connection = benchmark.connect();
+            connection.setAutoCommit(false);
+            lock = connection.prepareStatement("SELECT * FROM " + TABLE + " WHERE id = ? FOR UPDATE");
+            update = connection.prepareStatement("UPDATE " + TABLE + " SET stock = stock - ? WHERE id = ? AND stock >= ?");
+            reread = connection.prepareStatement("SELECT * FROM " + TABLE + " WHERE id = ?");
+        }
+
+        @TearDown(Level.Trial)
+        public void close() throws SQLException {
+            connection.close();
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class ReturningSession {
+        Connection connection;
+        PreparedStatement decrement;
+
+        @Setup(Level.Trial)
+        public void open(StockDecrementContentionBenchmark benchmark) throws SQLException {
+            connection = benchmark.connect();
+            decrement = connection.prepareStatement(
+                "UPDATE " + TABLE + " SET stock = stock - ?, version = version + 1, updated_at = now() "
+                    + "WHERE id = ? AND stock >= ? RETURNING *");
+        }
+
+        @TearDown(Level.Trial)
+        public void close() throws SQLException {
+            connection.close();
+        }
+    }
+
+    @Benchmark
+    public boolean lockUpdateReread(LockingSession session) throws SQLException {
+        session.lock.setLong(1, PRODUCT_ID);
+        try (ResultSet rows = session.lock.executeQuery()) {
+            rows.next();
+        }
+        session.update.setInt(1, 1);
+        session.update.setLong(2, PRODUCT_ID);
+        session.update.setInt(3, 1);
+        int updated = session.update.executeUpdate();
+        session.reread.setLong(1, PRODUCT_ID);
+        try (ResultSet rows = session.reread.executeQuery()) {
+            rows.next();
+        }
+        session.connection.commit();
+        return counted(updated == 1);
+    }
+
+    @Benchmark
+    public boolean updateReturning(ReturningSession session) throws SQLException {
+        session.decrement.setInt(1, 1);
+        session.decrement.setLong(2, PRODUCT_ID);
+        session.decrement.setInt(3, 1);
+        try (ResultSet rows = session.decrement.executeQuery()) {
+            return counted(rows.next());
+        }
+    }
+
+    private boolean counted(boolean decremented) {
+        if (decremented) {
+            decrements.incrementAndGet();
+        }
+        return decremented;
+    }
+
+    // Not forked: surefire's manifest-only classpath does not carry over to a forked JVM
+    @Test
+    @Tag("benchmark")
+    void run() throws Exception {
+        String url = System.getProperty("bench.jdbc.url");
+        assumeTrue(url != null && !url.isBlank(),
+            "Skipped: needs a PostgreSQL database, pass -Dbench.jdbc.url=jdbc:postgresql://host:5432/db");
+        new Runner(new OptionsBuilder()
+            .include(StockDecrementContentionBenchmark.class.getName() + "\\.")
+            .threads(Integer.getInteger("bench.threads", 32))
+            .shouldFailOnError(true)
+            .forks(0)
+            .build())
+            .run();
+    }
+}
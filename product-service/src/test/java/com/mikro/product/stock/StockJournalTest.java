@@ -0,0 +1,65 @@
+package com.mikro.product.stock;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class StockJournalTest {
+    @TempDir
+    Path dir;
+
+    @Test
+    void readStopsAtTheFirstUnpublishedSlot() throws IOException {
+        Path file = journalWithHoleAt(1, 4);
+
+        List<String> records = new ArrayList<>();
+        long position = StockJournal.open(file, 1).read(0, (id, delta) -> records.add(id + ":" + delta));
+
+        assertThat(position).isEqualTo(1);
+        assertThat(records).containsExactly("10:-1");
+    }
+
+    @Test
+    void replayKeepsRecordsCommittedAfterAHole() throws IOException {
+        Path file = journalWithHoleAt(1, 4);
+
+        List<String> records = new ArrayList<>();
+        long position = StockJournal.open(file, 1).replay(0, (id, delta) -> records.add(id + ":" + delta));
+
+        assertThat(records).containsExactly("10:-1", "12:-3", "13:-4");
+        assertThat(position).isEqualTo(8);
+    }
+
+    @Test
+    void replayStartsAtTheCheckpointPosition() throws IOException {
+        Path file = journalWithHoleAt(2, 4);
+
+        List<String> records = new ArrayList<>();
+        StockJournal.open(file, 1).replay(1, (id, delta) -> records.add(id + ":" + delta));
+
+        assertThat(records).containsExactly("11:-2", "13:-4");
+    }
+
+    // Records 10..13 with deltas -1..-4; the slot at hole lost its commit marker, as if its writer died mid-append
+    private Path journalWithHoleAt(int hole, int records) throws IOException {
+        StockJournal journal = StockJournal.create(dir, 1, 8);
+        for (int i = 0; i < records; i++) {
+            assertThat(journal.append(10 + i, -(i + 1))).isTrue();
+        }
+        journal.force();
+        Path file = dir.resolve(StockJournal.fileName(1));
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.allocate(4), (long) hole * StockJournal.RECORD_SIZE + 12);
+        }
+        return file;
+    }
+}
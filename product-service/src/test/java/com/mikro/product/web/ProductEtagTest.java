@@ -0,0 +1,35 @@
+package com.mikro.product.web;
+
+import com.mikro.product.cache.ProductCache;
+import com.mikro.product.domain.Product;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ProductEtagTest {
+
+    @Test
+    void etagChangesWithVersionAndHotStock() {
+        Product product = Product.builder().id(7L).name("Mug").stock(3).build();
+        ProductCache.CachedProduct v1 = new ProductCache.CachedProduct(product, 1, null, new byte[0]);
+        ProductCache.CachedProduct v2 = new ProductCache.CachedProduct(product, 2, null, new byte[0]);
+
+        assertThat(v1.etag()).isEqualTo("\"7-1\"");
+        assertThat(v2.etag()).isNotEqualTo(v1.etag());
+        assertThat(v1.etag(3)).isNotEqualTo(v1.etag(2)).isNotEqualTo(v1.etag());
+    }
+
+    @Test
+    void ifNoneMatchAcceptsListsWeakTagsAndWildcard() {
+        assertThat(ProductController.etagMatches("\"7-0\", \"7-1\"", "\"7-1\"")).isTrue();
+        assertThat(ProductController.etagMatches("W/\"7-1\"", "\"7-1\"")).isTrue();
+        assertThat(ProductController.etagMatches("*", "\"7-1\"")).isTrue();
+    }
+
+    @Test
+    void staleOrMissingIfNoneMatchIsNotAMatch() {
+        assertThat(ProductController.etagMatches("\"7-0\"", "\"7-1\"")).isFalse();
+        assertThat(ProductController.etagMatches(null, "\"7-1\"")).isFalse();
+        assertThat(ProductController.etagMatches(" ", "\"7-1\"")).isFalse();
+    }
+}